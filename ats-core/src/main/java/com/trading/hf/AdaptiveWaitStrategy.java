@@ -0,0 +1,52 @@
+package com.trading.hf;
+
+import com.lmax.disruptor.AlertException;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.WaitStrategy;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Wait strategy that follows {@link MarketSession}: while the market is open it busy-spins or
+ * yields, once it closes it parks for a fixed interval between checks. The session flag is
+ * re-read on every iteration, so a consumer waiting when the market closes drops to parking
+ * without needing another event. Producers never have to signal, as with the other
+ * non-blocking strategies.
+ */
+public class AdaptiveWaitStrategy implements WaitStrategy {
+
+    private final boolean spinWhenOpen;
+    private final long parkNanos;
+
+    public AdaptiveWaitStrategy(boolean spinWhenOpen, long parkNanos) {
+        this.spinWhenOpen = spinWhenOpen;
+        this.parkNanos = parkNanos;
+    }
+
+    @Override
+    public long waitFor(long sequence, Sequence cursor, Sequence dependentSequence, SequenceBarrier barrier)
+            throws AlertException {
+        long availableSequence;
+        while ((availableSequence = dependentSequence.get()) < sequence) {
+            barrier.checkAlert();
+            if (!MarketSession.isOpen()) {
+                LockSupport.parkNanos(parkNanos);
+            } else if (spinWhenOpen) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        return availableSequence;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveWaitStrategy{" + (spinWhenOpen ? "spin" : "yield") + "/park " + parkNanos / 1000 + "us}";
+    }
+}
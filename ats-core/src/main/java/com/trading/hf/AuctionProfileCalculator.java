@@ -4,17 +4,23 @@ import com.trading.hf.VolumeBar;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Market profile per symbol, built from volume bars. Each bar updates the symbol's working
+ * profile and then publishes, copy-on-write, an immutable {@link ValueArea} (POC, VAH, VAL) and
+ * a frozen snapshot of the histogram, both tagged with the bar version. Readers only read a
+ * volatile reference: they never lock, copy, or wait for a bar being applied.
+ */
 public class AuctionProfileCalculator {
     private static final Logger logger = LoggerFactory.getLogger(AuctionProfileCalculator.class);
 
     private static final java.util.concurrent.atomic.AtomicInteger instanceCounter = new java.util.concurrent.atomic.AtomicInteger(0);
     private final int instanceId = instanceCounter.incrementAndGet();
-    private final Map<String, MarketProfile> profiles = new ConcurrentHashMap<>();
+    private final Map<String, ProfileState> profiles = new ConcurrentHashMap<>();
 
     public AuctionProfileCalculator() {
         logger.info("!!! [AuctionProfile] New Instance Created: ID={}, Thread={} !!!", instanceId, Thread.currentThread().getName());
@@ -22,28 +28,41 @@ public class AuctionProfileCalculator {
 
     public void onVolumeBar(VolumeBar volumeBar) {
         logger.info("!!! [AuctionProfile] onVolumeBar CALLED for: {} !!!", volumeBar.getSymbol());
-        MarketProfile profile = profiles.computeIfAbsent(volumeBar.getSymbol(), k -> {
+        ProfileState state = profiles.computeIfAbsent(volumeBar.getSymbol(), k -> {
             logger.info("!!! [AuctionProfile] Creating NEW profile for: {} !!!", k);
-            return new MarketProfile();
+            return new ProfileState();
         });
-        synchronized (profile) {
+        // Serialises writers only; readers go through the published references
+        synchronized (state) {
+            MarketProfile profile = state.working;
             profile.addVolume(volumeBar.getClose(), volumeBar.getVolume());
             profile.calculateValueArea();
+            long version = ++state.version;
+            state.snapshot = new MarketProfile(profile, version);
+            state.valueArea = new ValueArea(profile.getPoc(), profile.getVah(), profile.getVal(),
+                    profile.getTotalVolume(), version);
             logger.info("[AuctionProfile] Updated for {}: VAH={}, POC={}, VAL={}, TotalVol={}",
                 volumeBar.getSymbol(), profile.getVah(), profile.getPoc(), profile.getVal(), profile.getTotalVolume());
         }
     }
 
+    /** POC, VAH and VAL as of the symbol's latest bar, or null before its first bar. */
+    public ValueArea getValueArea(String symbol) {
+        ProfileState state = profiles.get(symbol);
+        return state != null ? state.valueArea : null;
+    }
+
+    /**
+     * Frozen histogram snapshot as of the symbol's latest bar, shared by all readers, or null
+     * before its first bar. Use {@link #getValueArea} when only the levels are needed.
+     */
     public MarketProfile getProfile(String symbol) {
-        logger.info("[AuctionProfile] [ID={}] getProfile called for: {}, profiles map size: {}, keys: {}", 
-            instanceId, symbol, profiles.size(), profiles.keySet());
-
-        MarketProfile profile = profiles.get(symbol);
-        if (profile != null) {
-            synchronized (profile) {
-                // Return a copy to ensure thread safety for the caller
-                return new MarketProfile(profile);
-            }
+        logger.debug("[AuctionProfile] [ID={}] getProfile called for: {}, profiles map size: {}",
+            instanceId, symbol, profiles.size());
+
+        ProfileState state = profiles.get(symbol);
+        if (state != null) {
+            return state.snapshot;
         }
 
         logger.warn("[AuctionProfile] Profile NOT FOUND for: {}.", symbol);
@@ -51,20 +70,113 @@ public class AuctionProfileCalculator {
         // that no profile data exists yet for the requested symbol.
         return null;
     }
+
+    private static final class ProfileState {
+        final MarketProfile working = new MarketProfile();
+        long version;
+        volatile MarketProfile snapshot;
+        volatile ValueArea valueArea;
+    }
+
+    /** Immutable value area of one profile version. */
+    public static final class ValueArea {
+        private final double poc;
+        private final double vah;
+        private final double val;
+        private final long totalVolume;
+        private final long version;
+
+        public ValueArea(double poc, double vah, double val, long totalVolume, long version) {
+            this.poc = poc;
+            this.vah = vah;
+            this.val = val;
+            this.totalVolume = totalVolume;
+            this.version = version;
+        }
+
+        public double getPoc() { return poc; }
+        public double getVah() { return vah; }
+        public double getVal() { return val; }
+        public long getTotalVolume() { return totalVolume; }
+        /** Bars applied to the profile, the same for the ValueArea and snapshot of one bar. */
+        public long getVersion() { return version; }
+    }
+
+    /**
+     * Volume at price as a long[] histogram of price ticks (profile.tick.size), growing in either
+     * direction as prices arrive. Adding volume is O(1) and keeps the POC current; the 70% value
+     * area is one linear pass outward from the POC. Prices are snapped to the tick grid.
+     */
     public static class MarketProfile {
-        private final TreeMap<Double, Long> volumeAtPrice = new TreeMap<>();
+        private static final double DEFAULT_TICK_SIZE =
+                Double.parseDouble(ConfigLoader.getProperty("profile.tick.size", "0.05"));
+        private static final int INITIAL_LEVELS = 256;
+
+        private final double tickSize;
+        // Ticks per price unit when the tick divides 1 exactly, so prices come back without drift
+        private final double ticksPerUnit;
+        private long baseTick;
+        private long[] volumes;
+        // Levels that have received a bar, even one with zero volume
+        private boolean[] touched;
+        private int lowest = -1;
+        private int highest = -1;
+        private int pocIndex = -1;
         private double poc;
         private double vah;
         private double val;
         private long totalVolume;
+        // Published snapshots are frozen; version is the bar count when it was taken
+        private final boolean frozen;
+        private final long version;
 
         // Default constructor
         public MarketProfile() {
+            this(DEFAULT_TICK_SIZE);
+        }
+
+        public MarketProfile(double tickSize) {
+            if (!(tickSize > 0)) {
+                throw new IllegalArgumentException("Tick size must be positive: " + tickSize);
+            }
+            this.tickSize = tickSize;
+            double inverse = 1.0 / tickSize;
+            this.ticksPerUnit = Math.abs(inverse - Math.rint(inverse)) < 1e-9 ? Math.rint(inverse) : 0;
+            this.volumes = new long[INITIAL_LEVELS];
+            this.touched = new boolean[INITIAL_LEVELS];
+            this.frozen = false;
+            this.version = 0;
         }
 
         // Copy constructor for thread-safe snapshots
         public MarketProfile(MarketProfile other) {
-            this.volumeAtPrice.putAll(other.volumeAtPrice);
+            this(other, other.version, false);
+        }
+
+        /** Frozen copy of the occupied price range, for publishing. */
+        MarketProfile(MarketProfile other, long version) {
+            this(other, version, true);
+        }
+
+        private MarketProfile(MarketProfile other, long version, boolean frozen) {
+            this.tickSize = other.tickSize;
+            this.ticksPerUnit = other.ticksPerUnit;
+            this.frozen = frozen;
+            this.version = version;
+            if (other.lowest < 0) {
+                this.baseTick = other.baseTick;
+                this.volumes = new long[frozen ? 0 : INITIAL_LEVELS];
+                this.touched = new boolean[volumes.length];
+            } else {
+                // Only the range between the lowest and highest price is copied
+                int levels = other.highest - other.lowest + 1;
+                this.baseTick = other.baseTick + other.lowest;
+                this.volumes = Arrays.copyOfRange(other.volumes, other.lowest, other.highest + 1);
+                this.touched = Arrays.copyOfRange(other.touched, other.lowest, other.highest + 1);
+                this.lowest = 0;
+                this.highest = levels - 1;
+                this.pocIndex = other.pocIndex - other.lowest;
+            }
             this.poc = other.poc;
             this.vah = other.vah;
             this.val = other.val;
@@ -72,43 +184,117 @@ public class AuctionProfileCalculator {
         }
 
         public void addVolume(double price, long volume) {
-            volumeAtPrice.put(price, volumeAtPrice.getOrDefault(price, 0L) + volume);
+            checkNotFrozen();
+            int index = indexOf(Math.round(price / tickSize));
+            volumes[index] += volume;
+            touched[index] = true;
             totalVolume += volume;
+            if (lowest < 0 || index < lowest) {
+                lowest = index;
+            }
+            if (index > highest) {
+                highest = index;
+            }
+            // Volumes only grow, so the POC can only move to the level just added (ties go to the lower price)
+            if (pocIndex < 0 || volumes[index] > volumes[pocIndex]
+                    || (volumes[index] == volumes[pocIndex] && index < pocIndex)) {
+                pocIndex = index;
+            }
         }
 
         public void calculateValueArea() {
-            if (volumeAtPrice.isEmpty()) {
+            checkNotFrozen();
+            if (pocIndex < 0) {
                 return;
             }
-
-            // Find POC
-            poc = Collections.max(volumeAtPrice.entrySet(), Map.Entry.comparingByValue()).getKey();
+            poc = priceOf(pocIndex);
 
             long vaVolume = (long) (totalVolume * 0.70);
-            long currentVolume = volumeAtPrice.get(poc);
+            long currentVolume = volumes[pocIndex];
 
-            // Expand around POC
-            Map.Entry<Double, Long> lowerEntry = volumeAtPrice.lowerEntry(poc);
-            Map.Entry<Double, Long> higherEntry = volumeAtPrice.higherEntry(poc);
-
-            vah = poc;
-            val = poc;
+            // Expand around POC, one touched level at a time
+            int lower = previousLevel(pocIndex);
+            int higher = nextLevel(pocIndex);
+            int vahIndex = pocIndex;
+            int valIndex = pocIndex;
 
             while (currentVolume < vaVolume) {
-                if (higherEntry == null && lowerEntry == null) {
+                if (higher < 0 && lower < 0) {
                     break;
                 }
 
-                if (higherEntry != null && (lowerEntry == null || higherEntry.getValue() >= lowerEntry.getValue())) {
-                    currentVolume += higherEntry.getValue();
-                    vah = higherEntry.getKey();
-                    higherEntry = volumeAtPrice.higherEntry(vah);
-                } else if (lowerEntry != null) {
-                    currentVolume += lowerEntry.getValue();
-                    val = lowerEntry.getKey();
-                    lowerEntry = volumeAtPrice.lowerEntry(val);
+                if (higher >= 0 && (lower < 0 || volumes[higher] >= volumes[lower])) {
+                    currentVolume += volumes[higher];
+                    vahIndex = higher;
+                    higher = nextLevel(higher);
+                } else {
+                    currentVolume += volumes[lower];
+                    valIndex = lower;
+                    lower = previousLevel(lower);
+                }
+            }
+            vah = priceOf(vahIndex);
+            val = priceOf(valIndex);
+        }
+
+        private void checkNotFrozen() {
+            if (frozen) {
+                throw new IllegalStateException("Published profile snapshots are read-only; copy it first");
+            }
+        }
+
+        private int nextLevel(int index) {
+            for (int i = index + 1; i <= highest; i++) {
+                if (touched[i]) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int previousLevel(int index) {
+            for (int i = index - 1; i >= lowest; i--) {
+                if (touched[i]) {
+                    return i;
                 }
             }
+            return -1;
+        }
+
+        // Array index of a price tick, growing the histogram downwards or upwards as needed
+        private int indexOf(long tick) {
+            if (lowest < 0) {
+                baseTick = tick - volumes.length / 2;
+            }
+            long offset = tick - baseTick;
+            if (offset < 0) {
+                int shift = (int) Math.max(-offset, volumes.length);
+                resize(volumes.length + shift, shift);
+                baseTick -= shift;
+                offset += shift;
+            } else if (offset >= volumes.length) {
+                resize((int) Math.max(offset + 1, volumes.length * 2L), 0);
+            }
+            return (int) offset;
+        }
+
+        private void resize(int length, int shift) {
+            long[] grownVolumes = new long[length];
+            boolean[] grownTouched = new boolean[length];
+            System.arraycopy(volumes, 0, grownVolumes, shift, volumes.length);
+            System.arraycopy(touched, 0, grownTouched, shift, touched.length);
+            volumes = grownVolumes;
+            touched = grownTouched;
+            if (lowest >= 0) {
+                lowest += shift;
+                highest += shift;
+                pocIndex += shift;
+            }
+        }
+
+        private double priceOf(int index) {
+            long tick = baseTick + index;
+            return ticksPerUnit > 0 ? tick / ticksPerUnit : tick * tickSize;
         }
 
         public double getPoc() {
@@ -123,12 +309,38 @@ public class AuctionProfileCalculator {
             return val;
         }
 
+        /** Volume at the tick level of a price. */
+        public long getVolumeAt(double price) {
+            long offset = Math.round(price / tickSize) - baseTick;
+            return lowest >= 0 && offset >= lowest && offset <= highest ? volumes[(int) offset] : 0;
+        }
+
+        /** Copy of the touched levels as price to volume, lowest price first. */
         public TreeMap<Double, Long> getVolumeAtPrice() {
-            return volumeAtPrice;
+            TreeMap<Double, Long> copy = new TreeMap<>();
+            for (int i = lowest; i >= 0 && i <= highest; i++) {
+                if (touched[i]) {
+                    copy.put(priceOf(i), volumes[i]);
+                }
+            }
+            return copy;
+        }
+
+        public double getTickSize() {
+            return tickSize;
         }
 
         public long getTotalVolume() {
             return totalVolume;
         }
+
+        /** Bars applied when this snapshot was published; 0 for working profiles. */
+        public long getVersion() {
+            return version;
+        }
+
+        public boolean isFrozen() {
+            return frozen;
+        }
     }
 }
@@ -0,0 +1,135 @@
+package com.trading.hf;
+
+import com.lmax.disruptor.EventHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds every configured bar type of an instrument in one pass over each tick. Bars live in a
+ * {@link BarSeries} per spec and instrument (created on the instrument's first tick); completed
+ * bars go into the series' fixed-size history and are announced to the {@link Listener}s on the
+ * calling thread. A time bar completes on the first tick of a later period, every other type on
+ * the tick that reaches its size. Bars use exchange time (MarketEvent ts).
+ *
+ * Single-threaded: run it as one market handler, or embed it in the handler that reads it.
+ */
+public class BarEngine implements EventHandler<MarketEvent> {
+
+    /** Called on the engine's thread with the series whose latest completed bar (index 0) is new. */
+    public interface Listener {
+        void onBar(BarSeries series);
+    }
+
+    private final BarSpec[] specs;
+    private final int history;
+    private final List<Listener> listeners = new ArrayList<>();
+    private Listener[] listenerArray = new Listener[0];
+    // [spec][instrument id]
+    private BarSeries[][] series;
+
+    public BarEngine(List<BarSpec> specs, int history) {
+        if (history < 1) {
+            throw new IllegalArgumentException("Bar history must hold at least one bar");
+        }
+        this.specs = specs.toArray(new BarSpec[0]);
+        this.history = history;
+        this.series = new BarSeries[this.specs.length][(int) ConfigLoader.getLongProperty("instrument.id.capacity", 1024)];
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+        listenerArray = listeners.toArray(new Listener[0]);
+    }
+
+    @Override
+    public void onEvent(MarketEvent event, long sequence, boolean endOfBatch) {
+        update(event);
+    }
+
+    public void update(MarketEvent event) {
+        int id = event.getInstrumentId();
+        if (id < 0 || specs.length == 0) {
+            return;
+        }
+        if (id >= series[0].length) {
+            for (int s = 0; s < specs.length; s++) {
+                series[s] = Arrays.copyOf(series[s], Math.max(id + 1, series[s].length * 2));
+            }
+        }
+        String symbol = event.getSymbol();
+        long time = event.getTs();
+        double price = event.getLtp();
+        long quantity = event.getLtq();
+
+        for (int s = 0; s < specs.length; s++) {
+            BarSpec spec = specs[s];
+            BarSeries bars = series[s][id];
+            if (bars == null) {
+                bars = new BarSeries(spec, s, id, symbol, history);
+                series[s][id] = bars;
+            }
+            if (spec.getType() == BarSpec.Type.TIME) {
+                long period = (long) spec.getSize();
+                long periodStart = time - (time % period);
+                if (bars.running && bars.startTime != periodStart) {
+                    complete(bars);
+                }
+                if (bars.running) {
+                    bars.add(time, price, quantity);
+                } else {
+                    bars.start(symbol, periodStart, time, price, quantity);
+                }
+                continue;
+            }
+
+            if (bars.running) {
+                bars.add(time, price, quantity);
+            } else {
+                bars.start(symbol, time, time, price, quantity);
+            }
+            boolean full = switch (spec.getType()) {
+                case TICK -> bars.ticks >= spec.getSize();
+                case VOLUME -> bars.volume >= spec.getSize();
+                case DOLLAR -> bars.turnover >= spec.getSize();
+                case RANGE -> bars.high - bars.low >= spec.getSize();
+                case TIME -> false;
+            };
+            if (full) {
+                complete(bars);
+            }
+        }
+    }
+
+    private void complete(BarSeries bars) {
+        bars.complete();
+        for (Listener listener : listenerArray) {
+            listener.onBar(bars);
+        }
+    }
+
+    /** Series of an instrument for the spec at specIndex, or null before its first tick. */
+    public BarSeries getSeries(int specIndex, int instrumentId) {
+        BarSeries[] bySpec = series[specIndex];
+        return instrumentId >= 0 && instrumentId < bySpec.length ? bySpec[instrumentId] : null;
+    }
+
+    /** Index of the spec with this name (e.g. "time:5m"), or -1. */
+    public int indexOf(String specName) {
+        for (int s = 0; s < specs.length; s++) {
+            if (specs[s].getName().equals(specName)) {
+                return s;
+            }
+        }
+        return -1;
+    }
+
+    public List<BarSpec> getSpecs() {
+        return List.of(specs);
+    }
+
+    public int getHistory() {
+        return history;
+    }
+}
@@ -0,0 +1,51 @@
+package com.trading.hf;
+
+import com.lmax.disruptor.EventFactory;
+
+/** A completed bar on the bar ring, copied from the latest completed bar of a {@link BarSeries}. */
+public class BarEvent {
+    private BarSpec spec;
+    private String symbol;
+    private int instrumentId;
+    private long startTime;
+    private long endTime;
+    private double open;
+    private double high;
+    private double low;
+    private double close;
+    private long volume;
+    private double turnover;
+    private long ticks;
+
+    public void set(BarSeries series) {
+        this.spec = series.getSpec();
+        this.symbol = series.getSymbol();
+        this.instrumentId = series.getInstrumentId();
+        this.startTime = series.getStartTime(0);
+        this.endTime = series.getEndTime(0);
+        this.open = series.getOpen(0);
+        this.high = series.getHigh(0);
+        this.low = series.getLow(0);
+        this.close = series.getClose(0);
+        this.volume = series.getVolume(0);
+        this.turnover = series.getTurnover(0);
+        this.ticks = series.getTicks(0);
+    }
+
+    public BarSpec getSpec() { return spec; }
+    public String getSymbol() { return symbol; }
+    public int getInstrumentId() { return instrumentId; }
+    /** Period start for time bars, otherwise the first tick's time. */
+    public long getStartTime() { return startTime; }
+    public long getEndTime() { return endTime; }
+    public double getOpen() { return open; }
+    public double getHigh() { return high; }
+    public double getLow() { return low; }
+    public double getClose() { return close; }
+    public long getVolume() { return volume; }
+    public double getTurnover() { return turnover; }
+    public long getTicks() { return ticks; }
+    public double getVwap() { return volume > 0 ? turnover / volume : close; }
+
+    public final static EventFactory<BarEvent> EVENT_FACTORY = BarEvent::new;
+}
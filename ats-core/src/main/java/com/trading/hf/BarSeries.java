@@ -0,0 +1,149 @@
+package com.trading.hf;
+
+/**
+ * The bars of one instrument for one {@link BarSpec}: the running bar and a fixed-size ring of
+ * the most recent completed bars, all in primitive fields. Completed bars are indexed from 0
+ * (latest) to {@link #getCount()} - 1. Owned by the thread that runs its {@link BarEngine}.
+ */
+public class BarSeries {
+
+    private final BarSpec spec;
+    private final int specIndex;
+    private final int instrumentId;
+    private String symbol;
+
+    // Running bar
+    boolean running;
+    long startTime;
+    long endTime;
+    double open;
+    double high;
+    double low;
+    double close;
+    long volume;
+    double turnover;
+    long ticks;
+
+    // Completed bars, ring of capacity slots; head is the next slot to write
+    private final long[] startTimes;
+    private final long[] endTimes;
+    private final double[] opens;
+    private final double[] highs;
+    private final double[] lows;
+    private final double[] closes;
+    private final long[] volumes;
+    private final double[] turnovers;
+    private final long[] tickCounts;
+    private int head;
+    private int count;
+    private long completed;
+
+    BarSeries(BarSpec spec, int specIndex, int instrumentId, String symbol, int capacity) {
+        this.spec = spec;
+        this.specIndex = specIndex;
+        this.instrumentId = instrumentId;
+        this.symbol = symbol;
+        this.startTimes = new long[capacity];
+        this.endTimes = new long[capacity];
+        this.opens = new double[capacity];
+        this.highs = new double[capacity];
+        this.lows = new double[capacity];
+        this.closes = new double[capacity];
+        this.volumes = new long[capacity];
+        this.turnovers = new double[capacity];
+        this.tickCounts = new long[capacity];
+    }
+
+    void start(String symbol, long startTime, long time, double price, long quantity) {
+        this.symbol = symbol;
+        this.running = true;
+        this.startTime = startTime;
+        this.endTime = time;
+        this.open = price;
+        this.high = price;
+        this.low = price;
+        this.close = price;
+        this.volume = quantity;
+        this.turnover = price * quantity;
+        this.ticks = 1;
+    }
+
+    void add(long time, double price, long quantity) {
+        if (price > high) {
+            high = price;
+        }
+        if (price < low) {
+            low = price;
+        }
+        close = price;
+        endTime = time;
+        volume += quantity;
+        turnover += price * quantity;
+        ticks++;
+    }
+
+    /** Moves the running bar into the history. */
+    void complete() {
+        int slot = head;
+        startTimes[slot] = startTime;
+        endTimes[slot] = endTime;
+        opens[slot] = open;
+        highs[slot] = high;
+        lows[slot] = low;
+        closes[slot] = close;
+        volumes[slot] = volume;
+        turnovers[slot] = turnover;
+        tickCounts[slot] = ticks;
+        head = (slot + 1) % startTimes.length;
+        if (count < startTimes.length) {
+            count++;
+        }
+        completed++;
+        running = false;
+    }
+
+    private int slot(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Completed bar " + index + " of " + count);
+        }
+        int slot = head - 1 - index;
+        return slot < 0 ? slot + startTimes.length : slot;
+    }
+
+    public BarSpec getSpec() { return spec; }
+    /** Position of the spec in the engine's spec list. */
+    public int getSpecIndex() { return specIndex; }
+    public int getInstrumentId() { return instrumentId; }
+    public String getSymbol() { return symbol; }
+    /** Completed bars held, at most the history capacity. */
+    public int getCount() { return count; }
+    public int getCapacity() { return startTimes.length; }
+    /** Bars completed since the series was created. */
+    public long getCompleted() { return completed; }
+
+    public long getStartTime(int index) { return startTimes[slot(index)]; }
+    public long getEndTime(int index) { return endTimes[slot(index)]; }
+    public double getOpen(int index) { return opens[slot(index)]; }
+    public double getHigh(int index) { return highs[slot(index)]; }
+    public double getLow(int index) { return lows[slot(index)]; }
+    public double getClose(int index) { return closes[slot(index)]; }
+    public long getVolume(int index) { return volumes[slot(index)]; }
+    public double getTurnover(int index) { return turnovers[slot(index)]; }
+    public long getTicks(int index) { return tickCounts[slot(index)]; }
+
+    public double getVwap(int index) {
+        int slot = slot(index);
+        return volumes[slot] > 0 ? turnovers[slot] / volumes[slot] : closes[slot];
+    }
+
+    /** Whether a bar is in progress; the running getters are only meaningful while it is. */
+    public boolean isRunning() { return running; }
+    public long getRunningStartTime() { return startTime; }
+    public long getRunningEndTime() { return endTime; }
+    public double getRunningOpen() { return open; }
+    public double getRunningHigh() { return high; }
+    public double getRunningLow() { return low; }
+    public double getRunningClose() { return close; }
+    public long getRunningVolume() { return volume; }
+    public long getRunningTicks() { return ticks; }
+}
@@ -0,0 +1,76 @@
+package com.trading.hf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One bar type of the {@link BarEngine}: a time bar closes when a tick falls into the next
+ * period, the others once the bar's ticks, volume, turnover (price x quantity) or high-low range
+ * reach the size. Written as type:size, e.g. time:5m, tick:100, volume:50000, dollar:1e7, range:2.5.
+ */
+public class BarSpec {
+
+    public enum Type { TIME, TICK, VOLUME, DOLLAR, RANGE }
+
+    private final Type type;
+    private final double size;
+    private final String name;
+
+    public BarSpec(Type type, double size, String name) {
+        if (size < 0 || (type == Type.TIME && size < 1)) {
+            throw new IllegalArgumentException("Invalid bar size for " + name);
+        }
+        this.type = type;
+        this.size = size;
+        this.name = name;
+    }
+
+    public static BarSpec time(long duration, TimeUnit unit) {
+        long millis = unit.toMillis(duration);
+        return new BarSpec(Type.TIME, millis, "time:" + (millis % 60_000 == 0 ? millis / 60_000 + "m" : millis / 1000 + "s"));
+    }
+
+    /** Parses type:size; time sizes take an ms, s, m or h suffix (default seconds). */
+    public static BarSpec parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Bar spec must be type:size: " + spec);
+        }
+        Type type = Type.valueOf(parts[0].trim().toUpperCase());
+        String size = parts[1].trim().toLowerCase();
+        if (type != Type.TIME) {
+            return new BarSpec(type, Double.parseDouble(size), type.name().toLowerCase() + ":" + size);
+        }
+        if (size.endsWith("ms")) {
+            return time(Long.parseLong(size.substring(0, size.length() - 2)), TimeUnit.MILLISECONDS);
+        }
+        long value = Long.parseLong(size.replaceAll("[smh]$", ""));
+        return switch (size.charAt(size.length() - 1)) {
+            case 'h' -> time(value, TimeUnit.HOURS);
+            case 'm' -> time(value, TimeUnit.MINUTES);
+            default -> time(value, TimeUnit.SECONDS);
+        };
+    }
+
+    /** Comma-separated specs; an empty string gives no specs. */
+    public static List<BarSpec> parseList(String specs) {
+        List<BarSpec> result = new ArrayList<>();
+        for (String spec : specs.split(",")) {
+            if (!spec.isBlank()) {
+                result.add(parse(spec));
+            }
+        }
+        return result;
+    }
+
+    public Type getType() { return type; }
+    /** Period in ms for time bars, otherwise the threshold. */
+    public double getSize() { return size; }
+    public String getName() { return name; }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
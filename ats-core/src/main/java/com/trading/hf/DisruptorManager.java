@@ -8,14 +8,29 @@ import com.lmax.disruptor.BlockingWaitStrategy;
 import com.lmax.disruptor.SleepingWaitStrategy;
 import com.lmax.disruptor.WaitStrategy;
 import com.lmax.disruptor.EventHandler;
-import java.util.concurrent.ThreadFactory;
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.dsl.EventHandlerGroup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
 
 public class DisruptorManager {
 
+    private static final Logger logger = LoggerFactory.getLogger(DisruptorManager.class);
+
     private final Disruptor<MarketEvent> marketEventDisruptor;
     private RingBuffer<MarketEvent> marketEventRingBuffer;
+    private final MarketEventRegion marketEventRegion;
 
     private final Disruptor<RawFeedEvent> rawFeedDisruptor;
     private final RingBuffer<RawFeedEvent> rawFeedRingBuffer;
@@ -32,7 +47,24 @@ public class DisruptorManager {
     private final Disruptor<HeavyweightEvent> heavyweightDisruptor;
     private final RingBuffer<HeavyweightEvent> heavyweightRingBuffer;
 
+    private final BarEngine barEngine;
+    private final Disruptor<BarEvent> barDisruptor;
+    private RingBuffer<BarEvent> barRingBuffer;
+    private final List<EventHandler<BarEvent>> barHandlers = new ArrayList<>();
+    private volatile long droppedBars;
+
     private final List<EventHandler<MarketEvent>> marketEventHandlers;
+    private final Map<String, EventHandler<MarketEvent>> namedMarketHandlers = new LinkedHashMap<>();
+    // Partitioned handler name -> the names of its partitions ("alphaPulse" -> "alphaPulse#0", ...)
+    private final Map<String, List<String>> partitionedMarketHandlers = new LinkedHashMap<>();
+    private final List<TimedEventHandler> timedMarketHandlers = new ArrayList<>();
+    private final HandlerWatchdog watchdog = new HandlerWatchdog();
+    private ScheduledExecutorService metricsScheduler;
+    private long lastRawFeedCursor = -1;
+
+    // Default market handler graph: state first, then signals, then persistence and display
+    private static final String DEFAULT_MARKET_TOPOLOGY =
+            "optionChain,indexWeights,bars | alphaPulse,thetaGuard | questdb,dashboard,shm";
 
     @SuppressWarnings("unchecked")
     public DisruptorManager(
@@ -47,59 +79,88 @@ public class DisruptorManager {
             TelemetryWriter telemetryWriter,
             HeavyweightWriter heavyweightWriter,
             List<EventHandler<MarketEvent>> extraHandlers,
-            PaperTradingEngine paperTradingEngine) {
+            PaperTradingEngine paperTradingEngine,
+            InstrumentMaster instrumentMaster) {
 
         this.marketEventHandlers = marketEventHandlers;
-        ThreadFactory threadFactory = Thread.ofVirtual().factory();
-        WaitStrategy waitStrategy = getWaitStrategy();
 
+        // Optionally the market ring's events are flyweights over one contiguous off-heap region
+        int marketRingSize = 65536;
+        if (ConfigLoader.getBooleanProperty("disruptor.market.offheap", false)) {
+            String file = ConfigLoader.getProperty("disruptor.market.offheap.file", "");
+            marketEventRegion = new MarketEventRegion(marketRingSize, file.isEmpty() ? null : Path.of(file),
+                    instrumentMaster::getInstrumentKey);
+            logger.info("Market ring events are off-heap ({} x {} bytes{})", marketRingSize,
+                    OffHeapMarketEvent.SLOT_SIZE, file.isEmpty() ? "" : ", mapped from " + file);
+        } else {
+            marketEventRegion = null;
+        }
         marketEventDisruptor = new Disruptor<>(
-                MarketEvent.EVENT_FACTORY,
-                65536,
-                threadFactory,
-                ProducerType.SINGLE,
-                waitStrategy);
+                marketEventRegion != null ? marketEventRegion.factory() : MarketEvent.EVENT_FACTORY,
+                marketRingSize,
+                threadFactory("market"),
+                getMarketProducerType(),
+                getWaitStrategy("market"));
 
 
-        this.marketEventHandlers.add(indexWeightCalculator);
-        this.marketEventHandlers.add(optionChainProvider);
+        // Heavyweight deltas only depend on the latest quote per instrument
+        addMarketEventHandler("indexWeights", new MarketEventConflator("indexWeights", indexWeightCalculator,
+                ConfigLoader.getLongProperty("conflation.heavyweight.interval.ms", 250)));
+        addPartitionedMarketEventHandler("optionChain", partition -> optionChainProvider);
         if (thetaExitGuard != null) {
-            this.marketEventHandlers.add(thetaExitGuard);
+            addMarketEventHandler("thetaGuard", thetaExitGuard);
         }
         if (questDBWriter != null) {
-            this.marketEventHandlers.add(questDBWriter);
+            addMarketEventHandler("questdb", questDBWriter);
+        }
+        if (ConfigLoader.getBooleanProperty("shm.ticks.enabled", false)) {
+            addMarketEventHandler("shm", new ShmTickPublisher(
+                    Path.of(ConfigLoader.getProperty("shm.ticks.file", "shm/ticks.ring")),
+                    (int) ConfigLoader.getLongProperty("shm.ticks.slots", 65536)));
         }
         if (extraHandlers != null) {
-            this.marketEventHandlers.addAll(extraHandlers);
+            for (EventHandler<MarketEvent> handler : extraHandlers) {
+                addMarketEventHandler(TimedEventHandler.nameOf(handler, namedMarketHandlers.size()), handler);
+            }
         }
-        this.marketEventHandlers.add((event, seq, end) -> {
-            publishTelemetry("MARKET_PROCESSOR", marketEventDisruptor.getRingBuffer().remainingCapacity(),
-                    System.currentTimeMillis() - event.getTs(),
-                    System.currentTimeMillis() - event.getLtt());
-        });
 
+        // Every bar type in one pass per tick; completed bars go out on the bar ring
+        List<BarSpec> barSpecs = BarSpec.parseList(ConfigLoader.getProperty("bars.specs", "time:1m,time:5m"));
+        if (!barSpecs.isEmpty()) {
+            barEngine = new BarEngine(barSpecs, (int) ConfigLoader.getLongProperty("bars.history", 64));
+            barDisruptor = new Disruptor<>(
+                    BarEvent.EVENT_FACTORY,
+                    (int) ConfigLoader.getLongProperty("bars.ring.size", 4096),
+                    threadFactory("bars"),
+                    ProducerType.SINGLE,
+                    getWaitStrategy("bars"));
+            barEngine.addListener(this::publishBar);
+            addMarketEventHandler("bars", barEngine);
+        } else {
+            barEngine = null;
+            barDisruptor = null;
+        }
+
+        // Every connection's decoder publishes raw depth rows from its own thread
         rawFeedDisruptor = new Disruptor<>(
                 RawFeedEvent::new,
                 65536,
-                threadFactory,
-                ProducerType.SINGLE,
-                waitStrategy);
+                threadFactory("rawfeed"),
+                getMarketDataConnectionCount() > 1 ? ProducerType.MULTI : ProducerType.SINGLE,
+                getWaitStrategy("rawfeed"));
 
         if (rawFeedWriter != null) {
-            rawFeedDisruptor.handleEventsWith(rawFeedWriter);
+            rawFeedDisruptor.handleEventsWith(watched("rawfeed", rawFeedDisruptor.getRingBuffer(), rawFeedWriter));
         }
-        rawFeedDisruptor.handleEventsWith((event, seq, end) -> {
-            publishTelemetry("RAW_FEED_PROCESSOR", rawFeedDisruptor.getRingBuffer().remainingCapacity(),
-                    System.currentTimeMillis() - event.getTimestamp(), 0);
-        });
         rawFeedRingBuffer = rawFeedDisruptor.start();
 
+        // Multi: signal producers may run as several partitions of the market ring
         signalDisruptor = new Disruptor<>(
                 SignalEvent.EVENT_FACTORY,
                 16384,
-                threadFactory,
-                ProducerType.SINGLE,
-                waitStrategy);
+                threadFactory("signal"),
+                ProducerType.MULTI,
+                getWaitStrategy("signal"));
 
         List<EventHandler<SignalEvent>> signalHandlers = new ArrayList<>();
         if (signalPersistenceWriter != null) {
@@ -116,20 +177,21 @@ public class DisruptorManager {
         orderDisruptor = new Disruptor<>(
                 OrderEvent.EVENT_FACTORY,
                 8192,
-                threadFactory,
+                threadFactory("order"),
                 ProducerType.SINGLE,
-                waitStrategy);
+                getWaitStrategy("order"));
         if (orderPersistenceWriter != null) {
             orderDisruptor.handleEventsWith(orderPersistenceWriter);
         }
         orderRingBuffer = orderDisruptor.start();
 
+        // Single: only the metrics thread publishes telemetry
         telemetryDisruptor = new Disruptor<>(
                 TelemetryEvent.EVENT_FACTORY,
                 4096,
-                threadFactory,
-                ProducerType.MULTI,
-                waitStrategy);
+                threadFactory("telemetry"),
+                ProducerType.SINGLE,
+                getWaitStrategy("telemetry"));
         if (telemetryWriter != null) {
             telemetryDisruptor.handleEventsWith(telemetryWriter);
         }
@@ -138,53 +200,315 @@ public class DisruptorManager {
         heavyweightDisruptor = new Disruptor<>(
                 HeavyweightEvent.EVENT_FACTORY,
                 16384,
-                threadFactory,
+                threadFactory("heavyweight"),
                 ProducerType.SINGLE,
-                waitStrategy);
+                getWaitStrategy("heavyweight"));
         if (heavyweightWriter != null) {
-            heavyweightDisruptor.handleEventsWith(heavyweightWriter);
+            heavyweightDisruptor.handleEventsWith(
+                    watched("heavyweight", heavyweightDisruptor.getRingBuffer(), heavyweightWriter));
         }
         heavyweightRingBuffer = heavyweightDisruptor.start();
     }
 
+    /** Subscribes to completed bars of the shared bar engine (bars.specs). Call before start(). */
+    public void addBarHandler(EventHandler<BarEvent> handler) {
+        barHandlers.add(handler);
+    }
+
+    // On the bars handler thread; a full bar ring drops the bar rather than hold up the market ring
+    private void publishBar(BarSeries series) {
+        RingBuffer<BarEvent> ring = barRingBuffer;
+        if (ring == null) {
+            return;
+        }
+        long sequence;
+        try {
+            sequence = ring.tryNext();
+        } catch (InsufficientCapacityException e) {
+            if (droppedBars++ % 1000 == 0) {
+                logger.warn("Bar ring full, {} completed bars dropped", droppedBars);
+            }
+            return;
+        }
+        try {
+            ring.get(sequence).set(series);
+        } finally {
+            ring.publish(sequence);
+        }
+    }
+
+    /** Registers a market handler under the name the topology (disruptor.market.topology) refers to. Call before start(). */
+    public void addMarketEventHandler(String name, EventHandler<MarketEvent> handler) {
+        if (namedMarketHandlers.putIfAbsent(name, handler) != null) {
+            throw new IllegalArgumentException("Duplicate market handler name: " + name);
+        }
+    }
+
+    /**
+     * Registers a handler that runs as disruptor.partitions.&lt;name&gt; consumers of the same stage
+     * (see {@link PartitionedEventHandler}). The factory is called once per partition; it may
+     * return one shared instance when that instance keeps only per-instrument state. With a
+     * single partition this is the same as {@link #addMarketEventHandler}. The topology refers
+     * to the handler by its plain name.
+     */
+    public void addPartitionedMarketEventHandler(String name, IntFunction<EventHandler<MarketEvent>> factory) {
+        int partitions = getPartitionCount(name);
+        if (partitions == 1) {
+            addMarketEventHandler(name, factory.apply(0));
+            return;
+        }
+        List<String> names = new ArrayList<>();
+        for (int partition = 0; partition < partitions; partition++) {
+            String partitionName = name + "#" + partition;
+            addMarketEventHandler(partitionName,
+                    new PartitionedEventHandler(partition, partitions, factory.apply(partition)));
+            names.add(partitionName);
+        }
+        partitionedMarketHandlers.put(name, names);
+    }
+
+    public static int getPartitionCount(String handlerName) {
+        return (int) Math.max(1, ConfigLoader.getLongProperty("disruptor.partitions." + handlerName, 1));
+    }
+
     public void start() {
-        marketEventDisruptor.handleEventsWith(this.marketEventHandlers.toArray(new EventHandler[0]));
+        // Handlers added to the list passed in at construction are registered by class name
+        for (EventHandler<MarketEvent> handler : marketEventHandlers) {
+            if (!namedMarketHandlers.containsValue(handler)) {
+                addMarketEventHandler(TimedEventHandler.nameOf(handler, namedMarketHandlers.size()), handler);
+            }
+        }
+
+        List<List<String>> stages = buildMarketTopology(
+                ConfigLoader.getProperty("disruptor.market.topology", DEFAULT_MARKET_TOPOLOGY));
+        EventHandlerGroup<MarketEvent> group = null;
+        RingBuffer<MarketEvent> marketRing = marketEventDisruptor.getRingBuffer();
+        HandlerWatchdog.Probe[] upstream = new HandlerWatchdog.Probe[0];
+        for (List<String> stage : stages) {
+            @SuppressWarnings("unchecked")
+            EventHandler<MarketEvent>[] handlers = new EventHandler[stage.size()];
+            HandlerWatchdog.Probe[] probes = new HandlerWatchdog.Probe[stage.size()];
+            for (int i = 0; i < handlers.length; i++) {
+                String name = stage.get(i);
+                EventHandler<MarketEvent> handler = watchdog.wrap(name, namedMarketHandlers.get(name),
+                        marketRing, MarketEvent::getInstrumentId);
+                TimedEventHandler timed = new TimedEventHandler(name, handler);
+                watchdog.watch(name, marketRing, timed.getMetrics(),
+                        handler instanceof SheddableEventHandler<?> shed ? shed : null, upstream);
+                timedMarketHandlers.add(timed);
+                handlers[i] = timed;
+                probes[i] = timed.getMetrics();
+            }
+            group = (group == null) ? marketEventDisruptor.handleEventsWith(handlers) : group.then(handlers);
+            upstream = probes;
+        }
+        logger.info("Market handler topology: {}", stages);
+        // The bar ring starts first: the bars market handler publishes to it
+        if (barDisruptor != null) {
+            if (!barHandlers.isEmpty()) {
+                @SuppressWarnings("unchecked")
+                EventHandler<BarEvent>[] handlers = barHandlers.toArray(new EventHandler[0]);
+                barDisruptor.handleEventsWith(handlers);
+            }
+            this.barRingBuffer = barDisruptor.start();
+        }
         this.marketEventRingBuffer = marketEventDisruptor.start();
+
+        long intervalMs = Math.max(100, ConfigLoader.getLongProperty("telemetry.interval.ms", 1000));
+        metricsScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "handler-metrics");
+            t.setDaemon(true);
+            return t;
+        });
+        metricsScheduler.scheduleAtFixedRate(() -> {
+            try {
+                publishHandlerMetrics();
+            } catch (Exception e) {
+                logger.error("Error publishing handler metrics", e);
+            }
+        }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+
+        if (ConfigLoader.getBooleanProperty("watchdog.enabled", true)) {
+            long watchdogMs = Math.max(10, ConfigLoader.getLongProperty("watchdog.interval.ms", 250));
+            metricsScheduler.scheduleAtFixedRate(() -> {
+                try {
+                    watchdog.check();
+                } catch (Exception e) {
+                    logger.error("Handler watchdog failed", e);
+                }
+            }, watchdogMs, watchdogMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Side-ring handlers are only watched when they may be shed
+    private <T> EventHandler<T> watched(String name, RingBuffer<T> ring, EventHandler<T> handler) {
+        EventHandler<T> wrapped = watchdog.wrap(name, handler);
+        if (wrapped instanceof SheddableEventHandler<T> shed) {
+            watchdog.watch(name, ring, shed, shed);
+        }
+        return wrapped;
+    }
+
+    /**
+     * One telemetry record per market handler per interval (events, mean/max service time, mean
+     * wait, mean/max/current sequence lag, ring occupancy), plus one ring-level record for the raw
+     * feed ring. Replaces a telemetry event per tick.
+     */
+    private void publishHandlerMetrics() {
+        long now = System.currentTimeMillis();
+        RingBuffer<MarketEvent> market = marketEventRingBuffer;
+        long cursor = market.getCursor();
+        long remaining = market.remainingCapacity();
+        long occupancy = market.getBufferSize() - remaining;
+        for (TimedEventHandler handler : timedMarketHandlers) {
+            publishTelemetry("market." + handler.getName(), handler.getMetrics().roll(cursor), remaining, occupancy, now);
+        }
+
+        long rawCursor = rawFeedRingBuffer.getCursor();
+        long rawRemaining = rawFeedRingBuffer.remainingCapacity();
+        long rawOccupancy = rawFeedRingBuffer.getBufferSize() - rawRemaining;
+        long rawEvents = lastRawFeedCursor < 0 ? rawCursor + 1 : rawCursor - lastRawFeedCursor;
+        lastRawFeedCursor = rawCursor;
+        publishTelemetry("rawfeed", new HandlerMetrics.Interval("rawfeed", rawEvents, 0, 0, 0, 0, 0, rawOccupancy),
+                rawRemaining, rawOccupancy, now);
+    }
+
+    /**
+     * Stages of the market handler graph. The topology lists stages separated by '|', each a
+     * comma-separated set of handler names that run in parallel; a stage only sees an event
+     * once every handler of the previous stage is done with it. Names that are not registered
+     * are ignored, and registered handlers the topology does not mention join the first stage.
+     */
+    private List<List<String>> buildMarketTopology(String topology) {
+        List<List<String>> stages = new ArrayList<>();
+        Set<String> placed = new HashSet<>();
+        for (String stageSpec : topology.split("\\|")) {
+            List<String> stage = new ArrayList<>();
+            for (String name : stageSpec.split(",")) {
+                name = name.trim();
+                if (name.isEmpty()) {
+                    continue;
+                }
+                for (String member : partitionedMarketHandlers.getOrDefault(name, List.of(name))) {
+                    if (!namedMarketHandlers.containsKey(member)) {
+                        logger.debug("Topology handler '{}' is not registered, skipping", member);
+                    } else if (placed.add(member)) {
+                        stage.add(member);
+                    }
+                }
+            }
+            if (!stage.isEmpty()) {
+                stages.add(stage);
+            }
+        }
+        List<String> unplaced = new ArrayList<>();
+        for (String name : namedMarketHandlers.keySet()) {
+            if (!placed.contains(name)) {
+                unplaced.add(name);
+            }
+        }
+        if (!unplaced.isEmpty()) {
+            logger.warn("Market handlers not in disruptor.market.topology, running in the first stage: {}", unplaced);
+            if (stages.isEmpty()) {
+                stages.add(unplaced);
+            } else {
+                stages.get(0).addAll(unplaced);
+            }
+        }
+        return stages;
     }
 
-    private void publishTelemetry(String processor, long capacity, long procLag, long netLag) {
+    private void publishTelemetry(String processor, HandlerMetrics.Interval interval, long remainingCapacity,
+            long occupancy, long timestamp) {
         if (telemetryRingBuffer == null) return;
         long sequence = telemetryRingBuffer.next();
         try {
             TelemetryEvent event = telemetryRingBuffer.get(sequence);
-            event.set(processor, capacity, procLag, Math.max(0, netLag), System.currentTimeMillis());
+            event.set(processor, interval, remainingCapacity, occupancy, timestamp);
         } finally {
             telemetryRingBuffer.publish(sequence);
         }
     }
 
     public RingBuffer<MarketEvent> getMarketEventRingBuffer() { return marketEventRingBuffer; }
+    /** Off-heap backing of the market ring, or null when it holds heap events. */
+    public MarketEventRegion getMarketEventRegion() { return marketEventRegion; }
     public RingBuffer<RawFeedEvent> getRawFeedRingBuffer() { return rawFeedRingBuffer; }
     public RingBuffer<SignalEvent> getSignalRingBuffer() { return signalRingBuffer; }
     public RingBuffer<OrderEvent> getOrderRingBuffer() { return orderRingBuffer; }
     public RingBuffer<TelemetryEvent> getTelemetryRingBuffer() { return telemetryRingBuffer; }
     public RingBuffer<HeavyweightEvent> getHeavyweightRingBuffer() { return heavyweightRingBuffer; }
+    /** Shared bar engine (the bars market handler), or null when bars.specs is empty. */
+    public BarEngine getBarEngine() { return barEngine; }
+    public RingBuffer<BarEvent> getBarRingBuffer() { return barRingBuffer; }
+    /** Completed bars not published because the bar ring was full. */
+    public long getDroppedBars() { return droppedBars; }
+
+    public List<TimedEventHandler> getTimedMarketHandlers() { return timedMarketHandlers; }
+    public HandlerWatchdog getWatchdog() { return watchdog; }
 
     public void shutdown() {
+        if (metricsScheduler != null) {
+            metricsScheduler.shutdownNow();
+        }
         marketEventDisruptor.shutdown();
         rawFeedDisruptor.shutdown();
         signalDisruptor.shutdown();
         orderDisruptor.shutdown();
         telemetryDisruptor.shutdown();
         heavyweightDisruptor.shutdown();
+        if (barDisruptor != null) {
+            barDisruptor.shutdown();
+        }
+    }
+
+    /**
+     * Consumer threads for one ring (see {@link RingThreadFactory}). Virtual by default; a ring
+     * that spins or yields on virtual threads holds carrier threads, so that combination is logged.
+     */
+    static RingThreadFactory threadFactory(String ring) {
+        RingThreadFactory factory = RingThreadFactory.forRing(ring, RingThreadFactory.Model.VIRTUAL);
+        if (factory.getModel() == RingThreadFactory.Model.VIRTUAL && isSpinning(getWaitStrategy(ring))) {
+            logger.warn("Ring '{}' spins or yields on virtual threads; set disruptor.threads.{}=platform or pinned",
+                    ring, ring);
+        }
+        return factory;
+    }
+
+    private static boolean isSpinning(WaitStrategy strategy) {
+        return strategy instanceof YieldingWaitStrategy
+                || strategy instanceof com.lmax.disruptor.BusySpinWaitStrategy
+                || strategy instanceof AdaptiveWaitStrategy;
+    }
+
+    static int getMarketDataConnectionCount() {
+        return (int) Math.max(1, ConfigLoader.getLongProperty("upstox.connections", 1));
+    }
+
+    // Each streamer connection decodes on its own thread, so sharded feeds always need a MULTI ring.
+    private static ProducerType getMarketProducerType() {
+        if (getMarketDataConnectionCount() > 1) {
+            return ProducerType.MULTI;
+        }
+        String type = ConfigLoader.getProperty("disruptor.market.producer", "single");
+        return "multi".equalsIgnoreCase(type) ? ProducerType.MULTI : ProducerType.SINGLE;
     }
 
-    private WaitStrategy getWaitStrategy() {
-        String strategyName = ConfigLoader.getProperty("disruptor.wait.strategy", "sleeping").toLowerCase();
+    /**
+     * Wait strategy for one ring: disruptor.wait.strategy.&lt;ring&gt;, falling back to
+     * disruptor.wait.strategy. "adaptive" yields and "adaptive-spin" busy-spins while the
+     * market session is open, and both park (disruptor.wait.park.us) while it is closed.
+     */
+    static WaitStrategy getWaitStrategy(String ring) {
+        String defaultName = ConfigLoader.getProperty("disruptor.wait.strategy", "sleeping");
+        String strategyName = ConfigLoader.getProperty("disruptor.wait.strategy." + ring, defaultName).toLowerCase();
+        long parkNanos = ConfigLoader.getLongProperty("disruptor.wait.park.us", 1000) * 1000;
         return switch (strategyName) {
             case "blocking" -> new BlockingWaitStrategy();
             case "yielding" -> new YieldingWaitStrategy();
             case "busyspin" -> new com.lmax.disruptor.BusySpinWaitStrategy();
+            case "adaptive" -> new AdaptiveWaitStrategy(false, parkNanos);
+            case "adaptive-spin" -> new AdaptiveWaitStrategy(true, parkNanos);
             default -> new SleepingWaitStrategy();
         };
     }
@@ -0,0 +1,683 @@
+package com.trading.hf;
+
+import com.lmax.disruptor.RingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Streaming decoder for Upstox v3 FeedResponse frames (see MarketDataFeed.proto).
+ * Walks the protobuf wire format directly on the frame buffer and writes fields into
+ * the claimed ring slots, so no FeedResponse/Feed object graph is built per frame.
+ * Instrument keys are interned in a byte-keyed table together with their dense instrument
+ * id, so a known key costs neither an allocation nor a dictionary lookup.
+ *
+ * Not thread-safe: one decoder per producer thread.
+ */
+public class FeedDecoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedDecoder.class);
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_FIXED64 = 1;
+    private static final int WIRE_LEN = 2;
+    private static final int WIRE_FIXED32 = 5;
+
+    private final RingBuffer<MarketEvent> marketEventRingBuffer;
+    private final MarketEventPublisher publisher;
+    private final RingBuffer<RawFeedEvent> rawFeedRingBuffer;
+    private final InstrumentMaster instrumentMaster;
+    private final SymbolTable symbols;
+    private OrderBookEngine orderBookEngine;
+
+    private int spotInstrumentId = -1;
+    private DoubleConsumer spotListener;
+
+    private ByteBuffer buf;
+    // Protobuf fixed64 is little-endian; reads swap bytes rather than reorder the caller's buffer
+    private boolean bigEndianBuffer;
+    private int pos;
+
+    // Stamps of the frame being decoded
+    private long receivedNanos;
+    private long exchangeTs;
+    private final LatencyHistogram exchangeLatency = LatencyTracker.histogram(LatencyTracker.EXCHANGE_TO_RECEIVE);
+    private final LatencyHistogram publishLatency = LatencyTracker.histogram(LatencyTracker.RECEIVE_TO_PUBLISH);
+
+    // Feed entries of the current frame, collected by the first pass so the whole frame
+    // can be claimed and published as one ring range. Reused across frames.
+    private int feedCount;
+    private String[] feedKeys = new String[64];
+    private int[] feedIds = new int[64];
+    private int[] feedStarts = new int[64];
+    private int[] feedEnds = new int[64];
+    private int[] depthStarts = new int[64];
+    private int[] depthEnds = new int[64];
+    private double[] feedLtps = new double[64];
+
+    // Decode target for feeds that cannot be written straight into the ring (ring full)
+    private final MarketEvent scratch = new HeapMarketEvent();
+
+    // Location of the MarketLevel message of the feed being decoded, for the raw-feed copy
+    private int depthStart;
+    private int depthEnd;
+
+    public FeedDecoder(RingBuffer<MarketEvent> marketEventRingBuffer, RingBuffer<RawFeedEvent> rawFeedRingBuffer,
+            InstrumentMaster instrumentMaster) {
+        this.marketEventRingBuffer = marketEventRingBuffer;
+        this.publisher = new MarketEventPublisher(marketEventRingBuffer, instrumentMaster);
+        this.rawFeedRingBuffer = rawFeedRingBuffer;
+        this.instrumentMaster = instrumentMaster;
+        this.symbols = new SymbolTable(1024, instrumentMaster);
+    }
+
+    /** Books every MarketLevel into the engine and stamps its metrics on the MarketEvent; null to disable. */
+    public void setOrderBookEngine(OrderBookEngine orderBookEngine) {
+        this.orderBookEngine = orderBookEngine;
+    }
+
+    public void setSpotListener(String instrumentKey, DoubleConsumer listener) {
+        this.spotInstrumentId = instrumentKey != null ? instrumentMaster.getInstrumentId(instrumentKey) : -1;
+        this.spotListener = listener;
+    }
+
+    /**
+     * Decodes one FeedResponse frame between the buffer's position and limit and
+     * publishes one MarketEvent (and, when enabled, one RawFeedEvent) per feed. All feeds
+     * of the frame are claimed with a single claim of n slots and published with a single
+     * publish(lo, hi), so consumers see the frame as one batch. When the ring is full, each
+     * update is handled by its backpressure policy instead (see {@link MarketEventPublisher}).
+     * The buffer's position and byte order are left unchanged.
+     */
+    public void decode(ByteBuffer frame) {
+        decode(frame, System.nanoTime());
+    }
+
+    /** As {@link #decode(ByteBuffer)}, stamping events with the frame's socket receive time. */
+    public void decode(ByteBuffer frame, long receivedNanos) {
+        buf = frame;
+        bigEndianBuffer = frame.order() == ByteOrder.BIG_ENDIAN;
+        pos = frame.position();
+        int end = frame.limit();
+        feedCount = 0;
+        exchangeTs = 0;
+        this.receivedNanos = receivedNanos;
+        while (pos < end) {
+            int tag = (int) readVarint();
+            int field = tag >>> 3;
+            if (field == 2 && (tag & 7) == WIRE_LEN) {
+                int entryEnd = readLengthDelimited();
+                scanFeedEntry(entryEnd);
+                pos = entryEnd;
+            } else if (field == 3 && (tag & 7) == WIRE_VARINT) {
+                exchangeTs = readVarint();
+            } else if (field == 4 && (tag & 7) == WIRE_LEN) {
+                decodeMarketInfo(readLengthDelimited());
+            } else {
+                skipField(tag & 7);
+            }
+        }
+
+        if (exchangeTs > 0) {
+            long receivedWallMillis = System.currentTimeMillis() - (System.nanoTime() - receivedNanos) / 1_000_000;
+            exchangeLatency.record(Math.max(0, receivedWallMillis - exchangeTs) * 1_000_000);
+        }
+
+        if (feedCount == 0 && publisher.getWaiting() > 0) {
+            publisher.drainWaiting();
+        }
+        int batchSize = marketEventRingBuffer.getBufferSize();
+        for (int from = 0; from < feedCount; from += batchSize) {
+            publishFeeds(from, Math.min(feedCount, from + batchSize));
+        }
+    }
+
+    // MarketInfo: map<string, MarketStatus> segmentStatus = 1. Sent rarely (on connect and at
+    // session transitions), so allocating the segment names is fine here.
+    private void decodeMarketInfo(int end) {
+        while (pos < end) {
+            int tag = (int) readVarint();
+            if (tag != ((1 << 3) | WIRE_LEN)) {
+                skipField(tag & 7);
+                continue;
+            }
+            int entryEnd = readLengthDelimited();
+            String segment = null;
+            int status = 0;
+            while (pos < entryEnd) {
+                int entryTag = (int) readVarint();
+                if (entryTag == ((1 << 3) | WIRE_LEN)) {
+                    int keyEnd = readLengthDelimited();
+                    byte[] key = new byte[keyEnd - pos];
+                    buf.get(pos, key);
+                    segment = new String(key, StandardCharsets.UTF_8);
+                    pos = keyEnd;
+                } else if (entryTag == ((2 << 3) | WIRE_VARINT)) {
+                    status = (int) readVarint();
+                } else {
+                    skipField(entryTag & 7);
+                }
+            }
+            if (segment != null) {
+                MarketSession.onSegmentStatus(segment, status);
+            }
+        }
+    }
+
+    // map<string, Feed> entry: key = 1, value = 2 (either order on the wire)
+    private void scanFeedEntry(int end) {
+        int keyStart = -1, keyLen = 0, valueStart = -1, valueEnd = -1;
+        while (pos < end) {
+            int tag = (int) readVarint();
+            int field = tag >>> 3;
+            if (field == 1 && (tag & 7) == WIRE_LEN) {
+                keyLen = readLengthDelimited() - pos;
+                keyStart = pos;
+                pos += keyLen;
+            } else if (field == 2 && (tag & 7) == WIRE_LEN) {
+                valueEnd = readLengthDelimited();
+                valueStart = pos;
+                pos = valueEnd;
+            } else {
+                skipField(tag & 7);
+            }
+        }
+        if (keyStart < 0 || valueStart < 0) {
+            return;
+        }
+
+        if (feedCount == feedKeys.length) {
+            growFeedArrays();
+        }
+        int slot = symbols.find(buf, keyStart, keyLen);
+        feedKeys[feedCount] = symbols.keys[slot];
+        feedIds[feedCount] = symbols.ids[slot];
+        feedStarts[feedCount] = valueStart;
+        feedEnds[feedCount] = valueEnd;
+        feedCount++;
+    }
+
+    private void publishFeeds(int from, int to) {
+        int n = to - from;
+        long ts = System.currentTimeMillis();
+        double spot = -1;
+        long hi = publisher.tryClaim(n);
+        if (hi >= 0) {
+            long lo = hi - (n - 1);
+            try {
+                for (int i = 0; i < n; i++) {
+                    decodeFeedInto(from + i, marketEventRingBuffer.get(lo + i), ts);
+                }
+            } finally {
+                long publishNanos = System.nanoTime();
+                for (long seq = lo; seq <= hi; seq++) {
+                    marketEventRingBuffer.get(seq).setPublishNanos(publishNanos);
+                }
+                marketEventRingBuffer.publish(lo, hi);
+                publisher.claimed(n);
+                publishLatency.record(publishNanos - receivedNanos);
+            }
+        } else {
+            // Ring full: decode aside and let the backpressure policy place each update
+            for (int i = 0; i < n; i++) {
+                decodeFeedInto(from + i, scratch, ts);
+                publisher.publish(scratch);
+            }
+            publishLatency.record(System.nanoTime() - receivedNanos);
+        }
+
+        for (int feed = from; feed < to; feed++) {
+            if (feedIds[feed] == spotInstrumentId && feedLtps[feed] > 0) {
+                spot = feedLtps[feed];
+            }
+        }
+        if (spotListener != null && spot > 0) {
+            spotListener.accept(spot);
+        }
+
+        if (rawFeedRingBuffer != null) {
+            publishRawFeeds(from, to, ts);
+        }
+    }
+
+    private void decodeFeedInto(int feed, MarketEvent event, long ts) {
+        event.clear();
+        event.setSymbol(feedKeys[feed]);
+        event.setInstrumentId(feedIds[feed]);
+        event.setTs(ts);
+        event.setReceiveNanos(receivedNanos);
+        event.setExchangeTs(exchangeTs);
+        depthStart = -1;
+        depthEnd = -1;
+        try {
+            pos = feedStarts[feed];
+            decodeFeed(feedEnds[feed], event);
+        } catch (RuntimeException e) {
+            // Publish the update with whatever was decoded (its slot may already be claimed)
+            logger.warn("Malformed feed for {}: {}", feedKeys[feed], e.getMessage());
+        }
+        event.setDecodeNanos(System.nanoTime());
+        depthStarts[feed] = depthStart;
+        depthEnds[feed] = depthEnd;
+        feedLtps[feed] = event.getLtp();
+    }
+
+    /** Publishes conflated updates still waiting for ring space, blocking; for the end of a replay. */
+    public void flush() {
+        publisher.flush();
+    }
+
+    public MarketEventPublisher getPublisher() {
+        return publisher;
+    }
+
+    private void publishRawFeeds(int from, int to, long ts) {
+        int n = to - from;
+        long hi = rawFeedRingBuffer.next(n);
+        long lo = hi - (n - 1);
+        try {
+            for (int i = 0; i < n; i++) {
+                int feed = from + i;
+                RawFeedEvent event = rawFeedRingBuffer.get(lo + i);
+                event.setInstrumentKey(feedKeys[feed]);
+                event.setLtp(feedLtps[feed]);
+                event.setTimestamp(ts);
+                try {
+                    copyDepth(depthStarts[feed], depthEnds[feed], event);
+                } catch (RuntimeException e) {
+                    logger.warn("Malformed depth for {}: {}", feedKeys[feed], e.getMessage());
+                }
+            }
+        } finally {
+            rawFeedRingBuffer.publish(lo, hi);
+        }
+    }
+
+    // Fills the slot's preallocated depth arrays in place (Upstox quotes carry no order count)
+    private void copyDepth(int start, int end, RawFeedEvent event) {
+        event.setBestBid(0);
+        event.setBestAsk(0);
+        event.clearDepth();
+        if (start < 0) {
+            return;
+        }
+        pos = start;
+        while (pos < end) {
+            int tag = (int) readVarint();
+            if ((tag >>> 3) == 1 && (tag & 7) == WIRE_LEN) {
+                int quoteEnd = readLengthDelimited();
+                long bidQ = 0, askQ = 0;
+                double bidP = 0, askP = 0;
+                while (pos < quoteEnd) {
+                    int qtag = (int) readVarint();
+                    switch (qtag) {
+                        case (1 << 3) | WIRE_VARINT -> bidQ = readVarint();
+                        case (2 << 3) | WIRE_FIXED64 -> bidP = readDouble();
+                        case (3 << 3) | WIRE_VARINT -> askQ = readVarint();
+                        case (4 << 3) | WIRE_FIXED64 -> askP = readDouble();
+                        default -> skipField(qtag & 7);
+                    }
+                }
+                if (event.getLevelCount() == 0) {
+                    event.setBestBid(bidP);
+                    event.setBestAsk(askP);
+                }
+                if (!event.addLevel(bidP, bidQ, 0, askP, askQ, 0)) {
+                    return;
+                }
+            } else {
+                skipField(tag & 7);
+            }
+        }
+    }
+
+    private void growFeedArrays() {
+        int capacity = feedKeys.length * 2;
+        feedKeys = Arrays.copyOf(feedKeys, capacity);
+        feedIds = Arrays.copyOf(feedIds, capacity);
+        feedStarts = Arrays.copyOf(feedStarts, capacity);
+        feedEnds = Arrays.copyOf(feedEnds, capacity);
+        depthStarts = Arrays.copyOf(depthStarts, capacity);
+        depthEnds = Arrays.copyOf(depthEnds, capacity);
+        feedLtps = Arrays.copyOf(feedLtps, capacity);
+    }
+
+    // Feed: oneof { LTPC ltpc = 1; FullFeed fullFeed = 2; ... }
+    private void decodeFeed(int end, MarketEvent event) {
+        while (pos < end) {
+            int tag = (int) readVarint();
+            switch (tag) {
+                case (1 << 3) | WIRE_LEN -> decodeLtpc(readLengthDelimited(), event);
+                case (2 << 3) | WIRE_LEN -> decodeFullFeed(readLengthDelimited(), event);
+                case (3 << 3) | WIRE_LEN -> decodeFirstLevelWithGreeks(readLengthDelimited(), event);
+                default -> skipField(tag & 7);
+            }
+        }
+    }
+
+    private void decodeLtpc(int end, MarketEvent event) {
+        while (pos < end) {
+            int tag = (int) readVarint();
+            switch (tag) {
+                case (1 << 3) | WIRE_FIXED64 -> event.setLtp(readDouble());
+                case (2 << 3) | WIRE_VARINT -> event.setLtt(readVarint());
+                case (3 << 3) | WIRE_VARINT -> event.setLtq(readVarint());
+                case (4 << 3) | WIRE_FIXED64 -> event.setCp(readDouble());
+                default -> skipField(tag & 7);
+            }
+        }
+    }
+
+    // FullFeed: oneof { MarketFullFeed marketFF = 1; IndexFullFeed indexFF = 2; }
+    private void decodeFullFeed(int end, MarketEvent event) {
+        while (pos < end) {
+            int tag = (int) readVarint();
+            switch (tag) {
+                case (1 << 3) | WIRE_LEN -> decodeMarketFullFeed(readLengthDelimited(), event);
+                case (2 << 3) | WIRE_LEN -> decodeIndexFullFeed(readLengthDelimited(), event);
+                default -> skipField(tag & 7);
+            }
+        }
+    }
+
+    private void decodeMarketFullFeed(int end, MarketEvent event) {
+        while (pos < end) {
+            int tag = (int) readVarint();
+            switch (tag) {
+                case (1 << 3) | WIRE_LEN -> decodeLtpc(readLengthDelimited(), event);
+                case (2 << 3) | WIRE_LEN -> decodeMarketLevel(readLengthDelimited(), event);
+                case (3 << 3) | WIRE_LEN -> decodeOptionGreeks(readLengthDelimited(), event);
+                case (4 << 3) | WIRE_LEN -> decodeMarketOhlc(readLengthDelimited(), event);
+                case (5 << 3) | WIRE_FIXED64 -> event.setAtp(readDouble());
+                case (6 << 3) | WIRE_VARINT -> event.setVtt(readVarint());
+                case (7 << 3) | WIRE_FIXED64 -> event.setOi(readDouble());
+                case (8 << 3) | WIRE_FIXED64 -> event.setIv(readDouble());
+                case (9 << 3) | WIRE_FIXED64 -> event.setTbq(readDouble());
+                case (10 << 3) | WIRE_FIXED64 -> event.setTsq(readDouble());
+                default -> skipField(tag & 7);
+            }
+        }
+    }
+
+    private void decodeIndexFullFeed(int end, MarketEvent event) {
+        while (pos < end) {
+            int tag = (int) readVarint();
+            switch (tag) {
+                case (1 << 3) | WIRE_LEN -> {
+                    decodeLtpc(readLengthDelimited(), event);
+                    event.setLtq(0);
+                }
+                case (2 << 3) | WIRE_LEN -> decodeMarketOhlc(readLengthDelimited(), event);
+                default -> skipField(tag & 7);
+            }
+        }
+    }
+
+    // option_greeks mode: LTPC, a single top-of-book Quote, greeks and the day's vtt/oi/iv.
+    // There is no MarketLevel, so no depth is recorded for the raw feed.
+    private void decodeFirstLevelWithGreeks(int end, MarketEvent event) {
+        while (pos < end) {
+            int tag = (int) readVarint();
+            switch (tag) {
+                case (1 << 3) | WIRE_LEN -> decodeLtpc(readLengthDelimited(), event);
+                case (2 << 3) | WIRE_LEN -> decodeTopQuote(readLengthDelimited(), event);
+                case (3 << 3) | WIRE_LEN -> decodeOptionGreeks(readLengthDelimited(), event);
+                case (4 << 3) | WIRE_VARINT -> event.setVtt(readVarint());
+                case (5 << 3) | WIRE_FIXED64 -> event.setOi(readDouble());
+                case (6 << 3) | WIRE_FIXED64 -> event.setIv(readDouble());
+                default -> skipField(tag & 7);
+            }
+        }
+    }
+
+    // MarketLevel: repeated Quote bidAskQuote = 1. The top of book goes into the MarketEvent;
+    // with an OrderBookEngine every level goes into the instrument's book as well.
+    private void decodeMarketLevel(int end, MarketEvent event) {
+        depthStart = pos;
+        depthEnd = end;
+        if (orderBookEngine == null) {
+            boolean first = true;
+            while (pos < end) {
+                int tag = (int) readVarint();
+                if (first && tag == ((1 << 3) | WIRE_LEN)) {
+                    decodeTopQuote(readLengthDelimited(), event);
+                    first = false;
+                } else {
+                    skipField(tag & 7);
+                }
+            }
+            return;
+        }
+
+        OrderBookEngine.OrderBook book = orderBookEngine.begin(event.getInstrumentId());
+        while (pos < end) {
+            int tag = (int) readVarint();
+            if (tag != ((1 << 3) | WIRE_LEN)) {
+                skipField(tag & 7);
+                continue;
+            }
+            int quoteEnd = readLengthDelimited();
+            long bidQ = 0, askQ = 0;
+            double bidP = 0, askP = 0;
+            while (pos < quoteEnd) {
+                int qtag = (int) readVarint();
+                switch (qtag) {
+                    case (1 << 3) | WIRE_VARINT -> bidQ = readVarint();
+                    case (2 << 3) | WIRE_FIXED64 -> bidP = readDouble();
+                    case (3 << 3) | WIRE_VARINT -> askQ = readVarint();
+                    case (4 << 3) | WIRE_FIXED64 -> askP = readDouble();
+                    default -> skipField(qtag & 7);
+                }
+            }
+            if (book.getLevels() == 0) {
+                event.setBestBidPrice(bidP);
+                event.setBestAskPrice(askP);
+            }
+            book.setLevel(bidP, bidQ, askP, askQ);
+        }
+        orderBookEngine.finish(book);
+        event.setMicroprice(book.getMicroprice());
+        event.setBookImbalance(book.getImbalance());
+        event.setSpread(book.getSpread());
+    }
+
+    // Quote: bidQ = 1, bidP = 2, askQ = 3, askP = 4
+    private void decodeTopQuote(int end, MarketEvent event) {
+        while (pos < end) {
+            int tag = (int) readVarint();
+            switch (tag) {
+                case (2 << 3) | WIRE_FIXED64 -> event.setBestBidPrice(readDouble());
+                case (4 << 3) | WIRE_FIXED64 -> event.setBestAskPrice(readDouble());
+                default -> skipField(tag & 7);
+            }
+        }
+    }
+
+    private void decodeOptionGreeks(int end, MarketEvent event) {
+        while (pos < end) {
+            int tag = (int) readVarint();
+            switch (tag) {
+                case (1 << 3) | WIRE_FIXED64 -> event.setOptionDelta(readDouble());
+                case (2 << 3) | WIRE_FIXED64 -> event.setTheta(readDouble());
+                default -> skipField(tag & 7);
+            }
+        }
+    }
+
+    // MarketOHLC: repeated OHLC ohlc = 1. Only the first "1d" bar is used.
+    private void decodeMarketOhlc(int end, MarketEvent event) {
+        boolean found = false;
+        while (pos < end) {
+            int tag = (int) readVarint();
+            if (!found && tag == ((1 << 3) | WIRE_LEN)) {
+                found = decodeDailyOhlc(readLengthDelimited(), event);
+            } else {
+                skipField(tag & 7);
+            }
+        }
+    }
+
+    private boolean decodeDailyOhlc(int end, MarketEvent event) {
+        int start = pos;
+        boolean daily = false;
+        while (pos < end) {
+            int tag = (int) readVarint();
+            if (tag == ((1 << 3) | WIRE_LEN)) {
+                int len = readLengthDelimited() - pos;
+                daily = len == 2 && buf.get(pos) == '1' && buf.get(pos + 1) == 'd';
+                pos += len;
+            } else {
+                skipField(tag & 7);
+            }
+        }
+        if (!daily) {
+            return false;
+        }
+        pos = start;
+        while (pos < end) {
+            int tag = (int) readVarint();
+            switch (tag) {
+                case (2 << 3) | WIRE_FIXED64 -> event.setDayOpen(readDouble());
+                case (3 << 3) | WIRE_FIXED64 -> event.setDayHigh(readDouble());
+                case (4 << 3) | WIRE_FIXED64 -> event.setDayLow(readDouble());
+                case (5 << 3) | WIRE_FIXED64 -> event.setDayClose(readDouble());
+                default -> skipField(tag & 7);
+            }
+        }
+        return true;
+    }
+
+    private long readVarint() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buf.get(pos++);
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalStateException("Malformed varint at offset " + pos);
+    }
+
+    /** Reads a length prefix and returns the absolute end offset of the delimited field. */
+    private int readLengthDelimited() {
+        int len = (int) readVarint();
+        int end = pos + len;
+        if (len < 0 || end > buf.limit()) {
+            throw new IllegalStateException("Truncated field at offset " + pos);
+        }
+        return end;
+    }
+
+    private double readDouble() {
+        long bits = buf.getLong(pos);
+        double value = Double.longBitsToDouble(bigEndianBuffer ? Long.reverseBytes(bits) : bits);
+        pos += 8;
+        return value;
+    }
+
+    private void skipField(int wireType) {
+        switch (wireType) {
+            case WIRE_VARINT -> readVarint();
+            case WIRE_FIXED64 -> pos += 8;
+            case WIRE_LEN -> pos = readLengthDelimited();
+            case WIRE_FIXED32 -> pos += 4;
+            default -> throw new IllegalStateException("Unsupported wire type " + wireType + " at offset " + pos);
+        }
+    }
+
+    /**
+     * Open-addressing table from UTF-8 key bytes to the interned key and its instrument id,
+     * so repeated instrument keys resolve without allocating.
+     */
+    static final class SymbolTable {
+        private final InstrumentMaster instrumentMaster;
+        private byte[][] bytes;
+        String[] keys;
+        int[] ids;
+        private int size;
+
+        SymbolTable(int capacity, InstrumentMaster instrumentMaster) {
+            this.instrumentMaster = instrumentMaster;
+            bytes = new byte[capacity][];
+            keys = new String[capacity];
+            ids = new int[capacity];
+        }
+
+        /** Returns the slot holding this key, adding it on first sight. */
+        int find(ByteBuffer buf, int offset, int length) {
+            int mask = bytes.length - 1;
+            for (int i = hash(buf, offset, length) & mask; ; i = (i + 1) & mask) {
+                byte[] candidate = bytes[i];
+                if (candidate == null) {
+                    return add(i, buf, offset, length);
+                }
+                if (matches(candidate, buf, offset, length)) {
+                    return i;
+                }
+            }
+        }
+
+        private int add(int slot, ByteBuffer buf, int offset, int length) {
+            byte[] keyBytes = new byte[length];
+            buf.get(offset, keyBytes);
+            String key = new String(keyBytes, StandardCharsets.UTF_8);
+            bytes[slot] = keyBytes;
+            keys[slot] = key;
+            ids[slot] = instrumentMaster.getInstrumentId(key);
+            if (++size * 2 > bytes.length) {
+                rehash();
+                return find(buf, offset, length);
+            }
+            return slot;
+        }
+
+        private void rehash() {
+            byte[][] oldBytes = bytes;
+            String[] oldKeys = keys;
+            int[] oldIds = ids;
+            bytes = new byte[oldBytes.length * 2][];
+            keys = new String[oldBytes.length * 2];
+            ids = new int[oldBytes.length * 2];
+            int mask = bytes.length - 1;
+            for (int j = 0; j < oldBytes.length; j++) {
+                byte[] key = oldBytes[j];
+                if (key == null) {
+                    continue;
+                }
+                int i = hash(ByteBuffer.wrap(key), 0, key.length) & mask;
+                while (bytes[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                bytes[i] = key;
+                keys[i] = oldKeys[j];
+                ids[i] = oldIds[j];
+            }
+        }
+
+        private static boolean matches(byte[] key, ByteBuffer buf, int offset, int length) {
+            if (key.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (key[i] != buf.get(offset + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int hash(ByteBuffer buf, int offset, int length) {
+            int h = 0x811C9DC5;
+            for (int i = 0; i < length; i++) {
+                h = (h ^ (buf.get(offset + i) & 0xFF)) * 0x01000193;
+            }
+            return h ^ (h >>> 16);
+        }
+    }
+}
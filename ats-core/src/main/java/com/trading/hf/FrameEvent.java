@@ -0,0 +1,48 @@
+package com.trading.hf;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Ring slot holding one raw WebSocket frame. The backing array is allocated once per slot
+ * and only replaced when a frame larger than any seen before arrives.
+ */
+public class FrameEvent {
+    private byte[] data;
+    private ByteBuffer buffer;
+    private long receivedNanos;
+
+    public FrameEvent(int capacity) {
+        this.data = new byte[capacity];
+        this.buffer = ByteBuffer.wrap(data);
+    }
+
+    /** Copies the remaining bytes of the frame into this slot and leaves it readable from position 0. */
+    public void set(ByteBuffer frame, long receivedNanos) {
+        int length = frame.remaining();
+        if (length > data.length) {
+            data = new byte[Math.max(length, data.length * 2)];
+            buffer = ByteBuffer.wrap(data);
+        }
+        buffer.clear();
+        buffer.put(frame);
+        buffer.flip();
+        this.receivedNanos = receivedNanos;
+    }
+
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /** Backing array; frame bytes are [0, getLength()). Readers must not rely on the buffer's position. */
+    public byte[] getData() {
+        return data;
+    }
+
+    public int getLength() {
+        return buffer.limit();
+    }
+
+    public long getReceivedNanos() {
+        return receivedNanos;
+    }
+}
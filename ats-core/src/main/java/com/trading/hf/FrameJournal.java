@@ -0,0 +1,151 @@
+package com.trading.hf;
+
+import com.lmax.disruptor.EventHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Append-only journal of raw WebSocket frames, written through memory-mapped segment files.
+ * Runs as a second consumer of a frame ring, beside the decoder, so it neither delays the
+ * socket thread nor decoding. Nothing is allocated per frame; a new mapping is created only
+ * when a segment fills up.
+ *
+ * Layout: journal.dir/&lt;session&gt;/&lt;stream&gt;-&lt;seq&gt;.journal. Each segment starts with
+ * a 16-byte header (magic, version, creation millis) followed by records of
+ * [int length][long receiveNanos][long receiveMillis][length bytes], little-endian, with the
+ * bytes zero-padded to a multiple of 4 so every length word is aligned. The length is written
+ * last with a release store, and the unused tail of a segment is zero, so a zero length marks
+ * the end; empty frames are therefore not journaled. All streams of one session share the JVM's
+ * nanoTime origin and can be merged by receiveNanos.
+ */
+public class FrameJournal implements EventHandler<FrameEvent>, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FrameJournal.class);
+
+    static final int MAGIC = 0x4E524A46; // "FJRN"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_HEADER_BYTES = 20;
+    static final String SEGMENT_SUFFIX = ".journal";
+    static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    // One session directory per process, shared by every stream
+    static final String SESSION = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+
+    private final Path directory;
+    private final String stream;
+    private final long segmentBytes;
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int segmentSequence;
+    private int position;
+    private long framesWritten;
+    private long bytesWritten;
+    private long emptyFrames;
+
+    public FrameJournal(Path baseDirectory, String stream) {
+        this.directory = baseDirectory.resolve(SESSION);
+        this.stream = stream;
+        this.segmentBytes = ConfigLoader.getLongProperty("journal.segment.bytes", 256L * 1024 * 1024);
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create journal directory " + directory, e);
+        }
+    }
+
+    @Override
+    public void onEvent(FrameEvent event, long sequence, boolean endOfBatch) {
+        append(event.getData(), event.getLength(), event.getReceivedNanos());
+    }
+
+    public void append(byte[] data, int length, long receiveNanos) {
+        if (length <= 0) {
+            // A zero length is the end marker; an empty frame has nothing to replay
+            emptyFrames++;
+            return;
+        }
+        int recordBytes = RECORD_HEADER_BYTES + align(length);
+        // Keep 4 zero bytes after every record as the end marker
+        if (segment == null || position + recordBytes + 4 > segment.capacity()) {
+            roll(recordBytes + 4);
+        }
+        segment.putLong(position + 4, receiveNanos);
+        segment.putLong(position + 12, System.currentTimeMillis());
+        segment.put(position + RECORD_HEADER_BYTES, data, 0, length);
+        // Length last, so a reader never sees a length before the bytes it covers
+        INTS.setRelease(segment, position, length);
+        position += recordBytes;
+        framesWritten++;
+        bytesWritten += length;
+    }
+
+    static int align(int length) {
+        return (length + 3) & ~3;
+    }
+
+    private void roll(int minimumBytes) {
+        closeSegment();
+        segmentSequence++;
+        Path file = directory.resolve(String.format("%s-%06d%s", stream, segmentSequence, SEGMENT_SUFFIX));
+        long size = Math.max(segmentBytes, HEADER_BYTES + minimumBytes);
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create journal segment " + file, e);
+        }
+        segment.order(ByteOrder.LITTLE_ENDIAN);
+        segment.putInt(0, MAGIC);
+        segment.putInt(4, VERSION);
+        segment.putLong(8, System.currentTimeMillis());
+        position = HEADER_BYTES;
+        logger.info("Journal segment opened: {}", file);
+    }
+
+    private void closeSegment() {
+        if (segment == null) {
+            return;
+        }
+        segment.force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close journal segment", e);
+        }
+        segment = null;
+        channel = null;
+    }
+
+    @Override
+    public void onShutdown() {
+        close();
+    }
+
+    @Override
+    public void close() {
+        closeSegment();
+        logger.info("Journal [{}] closed: frames={} bytes={} empty frames skipped={}",
+                stream, framesWritten, bytesWritten, emptyFrames);
+    }
+
+    public Path getDirectory() { return directory; }
+    public long getFramesWritten() { return framesWritten; }
+    public long getBytesWritten() { return bytesWritten; }
+    public long getEmptyFrames() { return emptyFrames; }
+}
@@ -0,0 +1,140 @@
+package com.trading.hf;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Reads a {@link FrameJournal} session back in receive order, merging the streams of all
+ * connections by receiveNanos. Frames are handed out as a view over the mapped segment
+ * (position..limit set to the frame), so nothing is copied or allocated per frame; the view
+ * is only valid until the consumer returns.
+ */
+public class FrameJournalReader {
+
+    public interface FrameConsumer {
+        void onFrame(ByteBuffer frame, long receiveNanos, long receiveMillis);
+    }
+
+    private final Path sessionDirectory;
+
+    public FrameJournalReader(Path sessionDirectory) {
+        this.sessionDirectory = sessionDirectory;
+    }
+
+    /** Most recent session under the journal base directory, or null if there is none. */
+    public static Path latestSession(Path baseDirectory) throws IOException {
+        if (!Files.isDirectory(baseDirectory)) {
+            return null;
+        }
+        try (Stream<Path> sessions = Files.list(baseDirectory)) {
+            return sessions.filter(Files::isDirectory).max(Comparator.naturalOrder()).orElse(null);
+        }
+    }
+
+    /** Replays every frame of the session; returns the number of frames delivered. */
+    public long replay(FrameConsumer consumer) throws IOException {
+        List<StreamCursor> cursors = new ArrayList<>();
+        for (List<Path> segments : segmentsByStream().values()) {
+            StreamCursor cursor = new StreamCursor(segments.iterator());
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+
+        long frames = 0;
+        while (!cursors.isEmpty()) {
+            StreamCursor next = cursors.get(0);
+            for (int i = 1; i < cursors.size(); i++) {
+                if (cursors.get(i).receiveNanos < next.receiveNanos) {
+                    next = cursors.get(i);
+                }
+            }
+            consumer.onFrame(next.frame, next.receiveNanos, next.receiveMillis);
+            frames++;
+            if (!next.advance()) {
+                cursors.remove(next);
+            }
+        }
+        return frames;
+    }
+
+    private Map<String, List<Path>> segmentsByStream() throws IOException {
+        Map<String, List<Path>> streams = new TreeMap<>();
+        try (Stream<Path> files = Files.list(sessionDirectory)) {
+            files.filter(f -> f.getFileName().toString().endsWith(FrameJournal.SEGMENT_SUFFIX))
+                    .sorted()
+                    .forEach(f -> {
+                        String name = f.getFileName().toString();
+                        String stream = name.substring(0, name.lastIndexOf('-'));
+                        streams.computeIfAbsent(stream, s -> new ArrayList<>()).add(f);
+                    });
+        }
+        return streams;
+    }
+
+    // Walks the segments of one stream in sequence order
+    private static class StreamCursor {
+        private final Iterator<Path> segments;
+        private MappedByteBuffer segment;
+        private ByteBuffer frame;
+        private int position;
+        long receiveNanos;
+        long receiveMillis;
+
+        StreamCursor(Iterator<Path> segments) {
+            this.segments = segments;
+        }
+
+        boolean advance() {
+            while (true) {
+                if (segment != null && position + FrameJournal.RECORD_HEADER_BYTES <= segment.capacity()) {
+                    int length = (int) FrameJournal.INTS.getAcquire(segment, position);
+                    if (length > 0) {
+                        receiveNanos = segment.getLong(position + 4);
+                        receiveMillis = segment.getLong(position + 12);
+                        int start = position + FrameJournal.RECORD_HEADER_BYTES;
+                        frame.limit(start + length).position(start);
+                        position = start + FrameJournal.align(length);
+                        return true;
+                    }
+                }
+                if (!segments.hasNext()) {
+                    return false;
+                }
+                open(segments.next());
+            }
+        }
+
+        private void open(Path file) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map journal segment " + file, e);
+            }
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+            if (segment.capacity() < FrameJournal.HEADER_BYTES || segment.getInt(0) != FrameJournal.MAGIC) {
+                throw new IllegalStateException("Not a frame journal segment: " + file);
+            }
+            int version = segment.getInt(4);
+            if (version != FrameJournal.VERSION) {
+                throw new IllegalStateException("Unsupported frame journal version " + version + ": " + file);
+            }
+            frame = segment.duplicate();
+            position = FrameJournal.HEADER_BYTES;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.trading.hf;
+
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves protobuf decoding off the WebSocket read thread. The read thread only copies each
+ * binary frame into a pre-sized frame ring; a dedicated decode thread drains that ring
+ * through a {@link FeedDecoder} into the market ring. Frames are decoded in arrival order,
+ * so per-instrument ordering is preserved.
+ *
+ * Time spent on the read thread (copy + publish), time frames wait in the ring, and decode
+ * time are accumulated separately.
+ *
+ * Conflated updates parked while the market ring was full otherwise only leave with the next
+ * frame, so when the frame ring is empty the decode thread retries them every
+ * market.conflate.retry.us until they are published or a new frame arrives.
+ */
+public class FramePipeline implements EventHandler<FrameEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(FramePipeline.class);
+    private static final long REPORT_INTERVAL_NANOS = 60_000_000_000L;
+
+    private final String name;
+    private final FeedDecoder decoder;
+    private final Disruptor<FrameEvent> frameDisruptor;
+    private final RingBuffer<FrameEvent> frameRingBuffer;
+    private final FrameJournal journal;
+    private final long conflateRetryNanos;
+    private volatile boolean stopping;
+
+    // Written by the read thread only
+    private volatile long framesReceived;
+    private volatile long bytesReceived;
+    private volatile long receiveNanos;
+
+    // Written by the decode thread only
+    private volatile long framesDecoded;
+    private volatile long queueNanos;
+    private volatile long decodeNanos;
+    private long lastReportNanos = System.nanoTime();
+    private final LatencyHistogram queueLatency = LatencyTracker.histogram(LatencyTracker.FRAME_QUEUE);
+    private final LatencyHistogram decodeLatency = LatencyTracker.histogram(LatencyTracker.DECODE);
+
+    public FramePipeline(String name, FeedDecoder decoder) {
+        this.name = name;
+        this.decoder = decoder;
+        int ringSize = (int) ConfigLoader.getLongProperty("upstox.frame.ring.size", 1024);
+        int frameCapacity = (int) ConfigLoader.getLongProperty("upstox.frame.capacity.bytes", 16384);
+        this.conflateRetryNanos = TimeUnit.MICROSECONDS.toNanos(
+                Math.max(1, ConfigLoader.getLongProperty("market.conflate.retry.us", 100)));
+
+        frameDisruptor = new Disruptor<>(
+                () -> new FrameEvent(frameCapacity),
+                ringSize,
+                RingThreadFactory.forRing("frame", name, RingThreadFactory.Model.PLATFORM),
+                ProducerType.SINGLE,
+                DisruptorManager.getWaitStrategy("frame"));
+        // The journal is a second consumer of the frame ring, running beside the decoder
+        if (ConfigLoader.getBooleanProperty("journal.enabled", false)) {
+            journal = new FrameJournal(Path.of(ConfigLoader.getProperty("journal.dir", "journal")), name);
+            frameDisruptor.handleEventsWith(this, journal);
+        } else {
+            journal = null;
+            frameDisruptor.handleEventsWith(this);
+        }
+        frameRingBuffer = frameDisruptor.start();
+    }
+
+    /** Called on the WebSocket read thread: copy the frame into the ring and return. */
+    public void onFrame(ByteBuffer frame) {
+        long received = System.nanoTime();
+        int length = frame.remaining();
+        long sequence = frameRingBuffer.next();
+        try {
+            frameRingBuffer.get(sequence).set(frame, received);
+        } finally {
+            frameRingBuffer.publish(sequence);
+        }
+        framesReceived++;
+        bytesReceived += length;
+        receiveNanos += System.nanoTime() - received;
+    }
+
+    @Override
+    public void onEvent(FrameEvent event, long sequence, boolean endOfBatch) {
+        long start = System.nanoTime();
+        queueNanos += start - event.getReceivedNanos();
+        queueLatency.record(start - event.getReceivedNanos());
+        try {
+            decoder.decode(event.getBuffer(), event.getReceivedNanos());
+        } catch (Exception e) {
+            logger.error("Error parsing binary message from Upstox", e);
+        }
+        long end = System.nanoTime();
+        decodeNanos += end - start;
+        decodeLatency.record(end - start);
+        framesDecoded++;
+        if (endOfBatch) {
+            drainParked(sequence);
+        }
+
+        if (endOfBatch && end - lastReportNanos >= REPORT_INTERVAL_NANOS) {
+            lastReportNanos = end;
+            logger.info("[{}] frames={} bytes={} avgReceiveUs={} avgQueueUs={} avgDecodeUs={}",
+                    name, framesReceived, bytesReceived,
+                    averageMicros(receiveNanos, framesReceived),
+                    averageMicros(queueNanos, framesDecoded),
+                    averageMicros(decodeNanos, framesDecoded));
+        }
+    }
+
+    // Runs only while no frame is waiting, so it never delays decoding
+    private void drainParked(long sequence) {
+        MarketEventPublisher publisher = decoder.getPublisher();
+        while (publisher.getWaiting() > 0 && publisher.drainWaiting() > 0
+                && frameRingBuffer.getCursor() == sequence && !stopping) {
+            LockSupport.parkNanos(conflateRetryNanos);
+        }
+    }
+
+    private static double averageMicros(long totalNanos, long count) {
+        return count == 0 ? 0 : totalNanos / 1000.0 / count;
+    }
+
+    public FeedDecoder getDecoder() { return decoder; }
+    public FrameJournal getJournal() { return journal; }
+    public long getFramesReceived() { return framesReceived; }
+    public long getBytesReceived() { return bytesReceived; }
+    public long getReceiveNanos() { return receiveNanos; }
+    public long getFramesDecoded() { return framesDecoded; }
+    public long getQueueNanos() { return queueNanos; }
+    public long getDecodeNanos() { return decodeNanos; }
+    public long getBacklog() { return frameRingBuffer.getBufferSize() - frameRingBuffer.remainingCapacity(); }
+
+    public void shutdown() {
+        stopping = true;
+        frameDisruptor.shutdown();
+    }
+}
@@ -0,0 +1,156 @@
+package com.trading.hf;
+
+import com.lmax.disruptor.Sequence;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Interval metrics of one ring handler: events handled, service and wait time, and how far the
+ * handler trails the ring cursor. The handler thread accumulates in plain fields and publishes
+ * them once per batch; {@link #roll} (metrics thread) turns the totals into per-interval values.
+ */
+public class HandlerMetrics implements HandlerWatchdog.Probe {
+
+    private final String name;
+    private volatile Sequence sequence;
+    private final AtomicLong inServiceSince = new AtomicLong();
+
+    // Handler thread only, published at the end of each batch
+    private long batchEvents;
+    private long batchServiceNanos;
+    private long batchWaitNanos;
+    private long batchMaxServiceNanos;
+
+    private volatile long events;
+    private volatile long serviceNanos;
+    private volatile long waitNanos;
+    private volatile long batches;
+    private volatile long queueDepthTotal;
+    private final AtomicLong maxServiceNanos = new AtomicLong();
+    private final AtomicLong maxQueueDepth = new AtomicLong();
+
+    // Metrics thread only: totals at the previous roll
+    private long lastEvents;
+    private long lastServiceNanos;
+    private long lastWaitNanos;
+    private long lastBatches;
+    private long lastQueueDepthTotal;
+
+    public HandlerMetrics(String name) {
+        this.name = name;
+    }
+
+    /** The handler's processor sequence, as handed to EventHandler.setSequenceCallback. */
+    public void setSequence(Sequence sequence) {
+        this.sequence = sequence;
+    }
+
+    @Override
+    public Sequence getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public long getInServiceSince() {
+        return inServiceSince.get();
+    }
+
+    /** Marks the handler as inside an event since startNanos (cleared by {@link #onEvent}). */
+    public void onServiceStart(long startNanos) {
+        inServiceSince.lazySet(startNanos);
+    }
+
+    /** queueDepth is the backlog the processor saw when starting the batch (cursor minus handler sequence). */
+    public void onBatchStart(long queueDepth) {
+        batches++;
+        queueDepthTotal += queueDepth;
+        if (queueDepth > maxQueueDepth.get()) {
+            maxQueueDepth.accumulateAndGet(queueDepth, Math::max);
+        }
+    }
+
+    public void onEvent(long waitNanos, long serviceNanos, boolean endOfBatch) {
+        inServiceSince.lazySet(0);
+        batchEvents++;
+        batchWaitNanos += waitNanos;
+        batchServiceNanos += serviceNanos;
+        if (serviceNanos > batchMaxServiceNanos) {
+            batchMaxServiceNanos = serviceNanos;
+        }
+        if (endOfBatch) {
+            events += batchEvents;
+            this.waitNanos += batchWaitNanos;
+            this.serviceNanos += batchServiceNanos;
+            if (batchMaxServiceNanos > maxServiceNanos.get()) {
+                maxServiceNanos.accumulateAndGet(batchMaxServiceNanos, Math::max);
+            }
+            batchEvents = 0;
+            batchWaitNanos = 0;
+            batchServiceNanos = 0;
+            batchMaxServiceNanos = 0;
+        }
+    }
+
+    /** Values since the previous roll; the maxima restart from zero. */
+    public Interval roll(long cursor) {
+        long totalEvents = events;
+        long totalService = serviceNanos;
+        long totalWait = waitNanos;
+        long totalBatches = batches;
+        long totalQueueDepth = queueDepthTotal;
+        long n = totalEvents - lastEvents;
+        long b = totalBatches - lastBatches;
+        Sequence current = sequence;
+        Interval interval = new Interval(name, n,
+                n == 0 ? 0 : (totalService - lastServiceNanos) / n,
+                maxServiceNanos.getAndSet(0),
+                n == 0 ? 0 : (totalWait - lastWaitNanos) / n,
+                b == 0 ? 0 : (totalQueueDepth - lastQueueDepthTotal) / b,
+                maxQueueDepth.getAndSet(0),
+                current == null ? 0 : Math.max(0, cursor - current.get()));
+        lastEvents = totalEvents;
+        lastServiceNanos = totalService;
+        lastWaitNanos = totalWait;
+        lastBatches = totalBatches;
+        lastQueueDepthTotal = totalQueueDepth;
+        return interval;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public static class Interval {
+        private final String name;
+        private final long events;
+        private final long meanServiceNanos;
+        private final long maxServiceNanos;
+        private final long meanWaitNanos;
+        private final long meanLag;
+        private final long maxLag;
+        private final long lag;
+
+        public Interval(String name, long events, long meanServiceNanos, long maxServiceNanos, long meanWaitNanos,
+                long meanLag, long maxLag, long lag) {
+            this.name = name;
+            this.events = events;
+            this.meanServiceNanos = meanServiceNanos;
+            this.maxServiceNanos = maxServiceNanos;
+            this.meanWaitNanos = meanWaitNanos;
+            this.meanLag = meanLag;
+            this.maxLag = maxLag;
+            this.lag = lag;
+        }
+
+        public String getName() { return name; }
+        public long getEvents() { return events; }
+        public long getMeanServiceNanos() { return meanServiceNanos; }
+        public long getMaxServiceNanos() { return maxServiceNanos; }
+        public long getMeanWaitNanos() { return meanWaitNanos; }
+        /** Mean backlog (in sequences) at batch start. */
+        public long getMeanLag() { return meanLag; }
+        public long getMaxLag() { return maxLag; }
+        /** Cursor minus handler sequence when the interval was rolled. */
+        public long getLag() { return lag; }
+    }
+}
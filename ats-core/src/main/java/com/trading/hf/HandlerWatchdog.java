@@ -0,0 +1,173 @@
+package com.trading.hf;
+
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Watches ring handlers for sequence lag and for time stuck in a single event. Lag is measured
+ * against what the handler could consume: the slowest handler of its upstream stage, or the ring
+ * cursor for a first-stage handler, so a handler behind a slow stage does not inherit its lag. A handler over either threshold is slow. Sheddable handlers (watchdog.shed)
+ * that are slow, or that trail a ring which is filling up, are switched to skip-to-latest (see
+ * {@link SheddableEventHandler}) until their lag drops back under watchdog.recover.lag. Critical
+ * handlers are never shed; a slow one is only logged.
+ *
+ * Shedding the side consumers keeps the market ring from filling, so the producer never blocks
+ * and the signal stages keep running in real time.
+ */
+public class HandlerWatchdog {
+
+    private static final Logger logger = LoggerFactory.getLogger(HandlerWatchdog.class);
+
+    /** What the watchdog reads from a handler. */
+    public interface Probe {
+        /** The handler's processor sequence, null until the ring has started. */
+        Sequence getSequence();
+
+        /** System.nanoTime at which the current event started, 0 when idle. */
+        long getInServiceSince();
+    }
+
+    private final Set<String> sheddable;
+    private final long lagThreshold;
+    private final long serviceThresholdNanos;
+    private final long recoverLag;
+    private final double ringOccupancyThreshold;
+    private final List<Watched> watched = new ArrayList<>();
+    private volatile long degradations;
+
+    public HandlerWatchdog() {
+        this.sheddable = Arrays.stream(ConfigLoader.getProperty("watchdog.shed",
+                        "dashboard,rawfeed").split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toSet());
+        this.lagThreshold = ConfigLoader.getLongProperty("watchdog.lag.threshold", 16384);
+        this.serviceThresholdNanos = TimeUnit.MILLISECONDS.toNanos(
+                ConfigLoader.getLongProperty("watchdog.service.threshold.ms", 250));
+        this.recoverLag = ConfigLoader.getLongProperty("watchdog.recover.lag", 256);
+        this.ringOccupancyThreshold = Double.parseDouble(ConfigLoader.getProperty("watchdog.ring.occupancy", "0.5"));
+    }
+
+    /** Whether the handler registered under this name may be shed. */
+    public boolean isSheddable(String name) {
+        return sheddable.contains(name) || sheddable.contains(baseName(name));
+    }
+
+    /** Wraps the handler for shedding when its name is sheddable, otherwise returns it as is. */
+    public <T> EventHandler<T> wrap(String name, EventHandler<T> handler) {
+        return isSheddable(name) ? new SheddableEventHandler<>(name, handler) : handler;
+    }
+
+    /** Wraps the handler for shedding per instrument (see {@link SheddableEventHandler}) when its name is sheddable. */
+    public <T> EventHandler<T> wrap(String name, EventHandler<T> handler, RingBuffer<T> ring, ToIntFunction<T> instrumentKey) {
+        return isSheddable(name) ? new SheddableEventHandler<>(name, handler, ring, instrumentKey) : handler;
+    }
+
+    /** Watches a first-stage handler of a ring; shed may be null for critical handlers. */
+    public void watch(String name, RingBuffer<?> ring, Probe probe, SheddableEventHandler<?> shed) {
+        watch(name, ring, probe, shed, new Probe[0]);
+    }
+
+    /** Watches a handler that runs after the handlers of upstream (empty for the first stage). */
+    public synchronized void watch(String name, RingBuffer<?> ring, Probe probe, SheddableEventHandler<?> shed,
+                                   Probe[] upstream) {
+        watched.add(new Watched(name, ring, probe, shed, upstream.clone()));
+    }
+
+    /** One pass over all watched handlers; run periodically from a single thread. */
+    public synchronized void check() {
+        long now = System.nanoTime();
+        for (Watched w : watched) {
+            Sequence sequence = w.probe.getSequence();
+            if (sequence == null) {
+                continue;
+            }
+            long barrier = barrier(w);
+            if (barrier == Long.MIN_VALUE) {
+                continue;
+            }
+            long lag = Math.max(0, barrier - sequence.get());
+            long since = w.probe.getInServiceSince();
+            long busyNanos = since == 0 ? 0 : now - since;
+            boolean slow = lag > lagThreshold || busyNanos > serviceThresholdNanos;
+            double occupancy = 1.0 - (double) w.ring.remainingCapacity() / w.ring.getBufferSize();
+            boolean ringFilling = occupancy >= ringOccupancyThreshold && lag > recoverLag;
+
+            if (w.shed == null) {
+                if (slow && !w.reportedSlow) {
+                    logger.warn("Critical handler '{}' is slow (lag={}, in event {} ms); it is not shed",
+                            w.name, lag, TimeUnit.NANOSECONDS.toMillis(busyNanos));
+                } else if (!slow && w.reportedSlow) {
+                    logger.info("Critical handler '{}' caught up (lag={})", w.name, lag);
+                }
+                w.reportedSlow = slow;
+            } else if (!w.shed.isDegraded() && (slow || ringFilling)) {
+                w.shed.degrade();
+                degradations++;
+                logger.warn("Degrading '{}' to skip-to-latest: lag={} in event {} ms ring occupancy {}% (degradation #{})",
+                        w.name, lag, TimeUnit.NANOSECONDS.toMillis(busyNanos), Math.round(occupancy * 100),
+                        w.shed.getDegradations());
+                w.skippedAtDegrade = w.shed.getSkipped();
+            } else if (w.shed.isDegraded() && lag <= recoverLag && busyNanos <= serviceThresholdNanos) {
+                w.shed.recover();
+                logger.info("Restored '{}' after skipping {} events (lag={})",
+                        w.name, w.shed.getSkipped() - w.skippedAtDegrade, lag);
+            }
+        }
+    }
+
+    /** Total degradations across all handlers. */
+    public long getDegradations() {
+        return degradations;
+    }
+
+    // Highest sequence the handler may consume, Long.MIN_VALUE until its upstream has started
+    private static long barrier(Watched w) {
+        if (w.upstream.length == 0) {
+            return w.ring.getCursor();
+        }
+        long min = Long.MAX_VALUE;
+        for (Probe probe : w.upstream) {
+            Sequence sequence = probe.getSequence();
+            if (sequence == null) {
+                return Long.MIN_VALUE;
+            }
+            min = Math.min(min, sequence.get());
+        }
+        return min;
+    }
+
+    private static String baseName(String name) {
+        int hash = name.indexOf('#');
+        return hash < 0 ? name : name.substring(0, hash);
+    }
+
+    private static final class Watched {
+        final String name;
+        final RingBuffer<?> ring;
+        final Probe probe;
+        final SheddableEventHandler<?> shed;
+        final Probe[] upstream;
+        boolean reportedSlow;
+        long skippedAtDegrade;
+
+        Watched(String name, RingBuffer<?> ring, Probe probe, SheddableEventHandler<?> shed, Probe[] upstream) {
+            this.name = name;
+            this.ring = ring;
+            this.probe = probe;
+            this.shed = shed;
+            this.upstream = upstream;
+        }
+    }
+}
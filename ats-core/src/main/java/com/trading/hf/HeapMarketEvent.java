@@ -0,0 +1,295 @@
+package com.trading.hf;
+
+/** {@link MarketEvent} with its fields on the heap; the default ring and scratch event type. */
+public class HeapMarketEvent implements MarketEvent {
+    private String symbol;
+    private int instrumentId = -1;
+    private double ltp;
+    private long ltt;
+    private long ltq;
+    private double cp;
+    private double tbq;
+    private double tsq;
+    private long vtt;
+    private double oi;
+    private double iv;
+    private double atp;
+    private long ts;
+    private double theta;
+    private double bestBidPrice;
+    private double bestAskPrice;
+    private double dayOpen;
+    private double dayHigh;
+    private double dayLow;
+    private double dayClose;
+    private double optionDelta;
+
+    // Order book metrics from OrderBookEngine (0 when the feed carried no depth)
+    private double microprice;
+    private double bookImbalance;
+    private double spread;
+
+    // Pipeline timestamps (System.nanoTime, 0 when not stamped) and exchange send time (epoch ms)
+    private long receiveNanos;
+    private long decodeNanos;
+    private long publishNanos;
+    private long exchangeTs;
+
+    // Padding to prevent false sharing
+    private long p1, p2, p3, p4, p5, p6, p7;
+
+    public double getBestBidPrice() {
+        return bestBidPrice;
+    }
+
+    public void setBestBidPrice(double bestBidPrice) {
+        this.bestBidPrice = bestBidPrice;
+    }
+
+    public double getBestAskPrice() {
+        return bestAskPrice;
+    }
+
+    public void setBestAskPrice(double bestAskPrice) {
+        this.bestAskPrice = bestAskPrice;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public int getInstrumentId() {
+        return instrumentId;
+    }
+
+    public void setInstrumentId(int instrumentId) {
+        this.instrumentId = instrumentId;
+    }
+
+    public double getLtp() {
+        return ltp;
+    }
+
+    public void setLtp(double ltp) {
+        this.ltp = ltp;
+    }
+
+    public long getLtt() {
+        return ltt;
+    }
+
+    public void setLtt(long ltt) {
+        this.ltt = ltt;
+    }
+
+    public long getLtq() {
+        return ltq;
+    }
+
+    public void setLtq(long ltq) {
+        this.ltq = ltq;
+    }
+
+    public double getCp() {
+        return cp;
+    }
+
+    public void setCp(double cp) {
+        this.cp = cp;
+    }
+
+    public double getTbq() {
+        return tbq;
+    }
+
+    public void setTbq(double tbq) {
+        this.tbq = tbq;
+    }
+
+    public double getTsq() {
+        return tsq;
+    }
+
+    public void setTsq(double tsq) {
+        this.tsq = tsq;
+    }
+
+    public long getVtt() {
+        return vtt;
+    }
+
+    public void setVtt(long vtt) {
+        this.vtt = vtt;
+    }
+
+    public double getOi() {
+        return oi;
+    }
+
+    public void setOi(double oi) {
+        this.oi = oi;
+    }
+
+    public double getIv() {
+        return iv;
+    }
+
+    public void setIv(double iv) {
+        this.iv = iv;
+    }
+
+    public double getAtp() {
+        return atp;
+    }
+
+    public void setAtp(double atp) {
+        this.atp = atp;
+    }
+
+    public long getTs() {
+        return ts;
+    }
+
+    public void setTs(long ts) {
+        this.ts = ts;
+    }
+
+    public double getTheta() {
+        return theta;
+    }
+
+    public void setTheta(double theta) {
+        this.theta = theta;
+    }
+
+    public double getDayOpen() {
+        return dayOpen;
+    }
+
+    public void setDayOpen(double dayOpen) {
+        this.dayOpen = dayOpen;
+    }
+
+    public double getDayHigh() {
+        return dayHigh;
+    }
+
+    public void setDayHigh(double dayHigh) {
+        this.dayHigh = dayHigh;
+    }
+
+    public double getDayLow() {
+        return dayLow;
+    }
+
+    public void setDayLow(double dayLow) {
+        this.dayLow = dayLow;
+    }
+
+    public double getDayClose() {
+        return dayClose;
+    }
+
+    public void setDayClose(double dayClose) {
+        this.dayClose = dayClose;
+    }
+
+    public double getOptionDelta() {
+        return optionDelta;
+    }
+
+    public void setOptionDelta(double optionDelta) {
+        this.optionDelta = optionDelta;
+    }
+
+    public double getMicroprice() {
+        return microprice;
+    }
+
+    public void setMicroprice(double microprice) {
+        this.microprice = microprice;
+    }
+
+    public double getBookImbalance() {
+        return bookImbalance;
+    }
+
+    public void setBookImbalance(double bookImbalance) {
+        this.bookImbalance = bookImbalance;
+    }
+
+    public double getSpread() {
+        return spread;
+    }
+
+    public void setSpread(double spread) {
+        this.spread = spread;
+    }
+
+    public long getReceiveNanos() {
+        return receiveNanos;
+    }
+
+    public void setReceiveNanos(long receiveNanos) {
+        this.receiveNanos = receiveNanos;
+    }
+
+    public long getDecodeNanos() {
+        return decodeNanos;
+    }
+
+    public void setDecodeNanos(long decodeNanos) {
+        this.decodeNanos = decodeNanos;
+    }
+
+    public long getPublishNanos() {
+        return publishNanos;
+    }
+
+    public void setPublishNanos(long publishNanos) {
+        this.publishNanos = publishNanos;
+    }
+
+    public long getExchangeTs() {
+        return exchangeTs;
+    }
+
+    public void setExchangeTs(long exchangeTs) {
+        this.exchangeTs = exchangeTs;
+    }
+
+    public void clear() {
+        symbol = null;
+        instrumentId = -1;
+        ltp = 0;
+        ltt = 0;
+        ltq = 0;
+        cp = 0;
+        tbq = 0;
+        tsq = 0;
+        vtt = 0;
+        oi = 0;
+        iv = 0;
+        atp = 0;
+        ts = 0;
+        theta = 0;
+        bestBidPrice = 0;
+        bestAskPrice = 0;
+        dayOpen = 0;
+        dayHigh = 0;
+        dayLow = 0;
+        dayClose = 0;
+        optionDelta = 0;
+        microprice = 0;
+        bookImbalance = 0;
+        spread = 0;
+        receiveNanos = 0;
+        decodeNanos = 0;
+        publishNanos = 0;
+        exchangeTs = 0;
+    }
+}
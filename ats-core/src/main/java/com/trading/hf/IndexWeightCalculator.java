@@ -19,11 +19,18 @@ public class IndexWeightCalculator implements EventHandler<MarketEvent> {
 
     private static final Logger logger = LoggerFactory.getLogger(IndexWeightCalculator.class);
     private final Map<String, Heavyweight> heavyweights;
+    private final Heavyweight[] heavyweightsById;
     private volatile double aggregateWeightedDelta = 0.0;
     private com.lmax.disruptor.RingBuffer<HeavyweightEvent> heavyweightRingBuffer;
 
     public IndexWeightCalculator(String indexPath, String indexJsonSymbol, InstrumentMaster instrumentMaster) {
         this.heavyweights = loadWeights(indexPath, indexJsonSymbol, instrumentMaster);
+        int maxId = -1;
+        for (String instrumentKey : heavyweights.keySet()) {
+            maxId = Math.max(maxId, instrumentMaster.getInstrumentId(instrumentKey));
+        }
+        this.heavyweightsById = new Heavyweight[maxId + 1];
+        heavyweights.forEach((instrumentKey, hw) -> heavyweightsById[instrumentMaster.getInstrumentId(instrumentKey)] = hw);
     }
 
     public void setHeavyweightRingBuffer(com.lmax.disruptor.RingBuffer<HeavyweightEvent> heavyweightRingBuffer) {
@@ -32,7 +39,8 @@ public class IndexWeightCalculator implements EventHandler<MarketEvent> {
 
     @Override
     public void onEvent(MarketEvent event, long sequence, boolean endOfBatch) {
-        Heavyweight hw = heavyweights.get(event.getSymbol());
+        int id = event.getInstrumentId();
+        Heavyweight hw = (id >= 0 && id < heavyweightsById.length) ? heavyweightsById[id] : null;
         if (hw != null) {
             double delta = (event.getTbq() - event.getTsq());
             logger.debug("[IndexWeight] Event for heavyweight {}: tbq={}, tsq={}, ltp={}, dayOpen={}", 
@@ -49,9 +57,9 @@ public class IndexWeightCalculator implements EventHandler<MarketEvent> {
                  else if (event.getLtp() < open) delta = -10000;
             }
 
+            aggregateWeightedDelta += (delta - hw.getDelta()) * hw.getWeight();
             hw.setDelta(delta);
             hw.setLtp(event.getLtp());
-            updateAggregateWeightedDelta();
 
                 logger.debug("[IndexWeight] Updated heavyweight {} -> delta={}, ltp={}, aggregateWeightedDelta={}", 
                     event.getSymbol(), hw.getDelta(), hw.getLtp(), aggregateWeightedDelta);
@@ -71,12 +79,6 @@ public class IndexWeightCalculator implements EventHandler<MarketEvent> {
         }
     }
 
-    private void updateAggregateWeightedDelta() {
-        aggregateWeightedDelta = heavyweights.values().stream()
-                .mapToDouble(hw -> hw.getDelta() * hw.getWeight())
-                .sum();
-    }
-
     public double getAggregateWeightedDelta() {
         return aggregateWeightedDelta;
     }
@@ -0,0 +1,29 @@
+package com.trading.hf;
+
+/**
+ * Coarse instrument grouping used to route subscriptions (connection shard, feed mode).
+ */
+public enum InstrumentClass {
+    INDEX,
+    FUTURE,
+    EQUITY,
+    OPTION;
+
+    public static InstrumentClass of(String instrumentKey, InstrumentMaster instrumentMaster) {
+        if (instrumentKey.contains("_INDEX|")) {
+            return INDEX;
+        }
+        if (instrumentKey.contains("_EQ|")) {
+            return EQUITY;
+        }
+        if (instrumentMaster != null) {
+            String type = instrumentMaster.getInstrument(instrumentKey)
+                    .map(InstrumentMaster.InstrumentDefinition::getInstrumentType)
+                    .orElse(null);
+            if (type != null && type.toUpperCase().startsWith("FUT")) {
+                return FUTURE;
+            }
+        }
+        return OPTION;
+    }
+}
@@ -25,6 +25,12 @@ public class InstrumentMaster {
     private final Map<String, String> tradingSymbolToInstrumentKeyMap = new ConcurrentHashMap<>();
     private final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
+    // Dense instrument-id dictionary: ids are handed out on first sight (0, 1, 2, ...) so
+    // per-tick handlers can keep per-instrument state in arrays indexed by id.
+    private final Map<String, Integer> instrumentIds = new ConcurrentHashMap<>();
+    private volatile String[] instrumentKeysById = new String[(int) ConfigLoader.getLongProperty("instrument.id.capacity", 1024)];
+    private int nextInstrumentId = 0;
+
     public InstrumentMaster(String resourcePath) {
         loadInstruments(resourcePath);
     }
@@ -100,6 +106,38 @@ public class InstrumentMaster {
         logger.info("Dynamically added {} instruments to InstrumentMaster", instruments.size());
     }
 
+    /** Returns the dense id for an instrument key, assigning the next free id on first use. */
+    public int getInstrumentId(String instrumentKey) {
+        Integer id = instrumentIds.get(instrumentKey);
+        return id != null ? id : assignInstrumentId(instrumentKey);
+    }
+
+    private synchronized int assignInstrumentId(String instrumentKey) {
+        Integer existing = instrumentIds.get(instrumentKey);
+        if (existing != null) {
+            return existing;
+        }
+        int id = nextInstrumentId++;
+        String[] keys = instrumentKeysById;
+        if (id >= keys.length) {
+            keys = java.util.Arrays.copyOf(keys, keys.length * 2);
+        }
+        keys[id] = instrumentKey;
+        instrumentKeysById = keys;
+        instrumentIds.put(instrumentKey, id);
+        return id;
+    }
+
+    public String getInstrumentKey(int instrumentId) {
+        String[] keys = instrumentKeysById;
+        return instrumentId >= 0 && instrumentId < keys.length ? keys[instrumentId] : null;
+    }
+
+    /** Upper bound (exclusive) of every id assigned so far; handlers size their per-id arrays from it. */
+    public int getInstrumentIdCapacity() {
+        return instrumentKeysById.length;
+    }
+
     public Optional<InstrumentDefinition> getInstrument(String instrumentKey) {
         return Optional.ofNullable(instrumentKeyMap.get(instrumentKey));
     }
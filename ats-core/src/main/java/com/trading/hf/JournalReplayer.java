@@ -0,0 +1,73 @@
+package com.trading.hf;
+
+import com.lmax.disruptor.RingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a {@link FrameJournal} session through the live decode path ({@link FeedDecoder}),
+ * so replayed events are bit-for-bit what the live session published. Runs at full speed
+ * unless journal.replay.realtime is set, in which case the recorded inter-frame gaps are kept.
+ */
+public class JournalReplayer implements IDataReplayer {
+    private static final Logger logger = LoggerFactory.getLogger(JournalReplayer.class);
+
+    private final FeedDecoder decoder;
+    private final Path baseDirectory;
+    private final String session;
+    private final boolean realtime;
+
+    public JournalReplayer(RingBuffer<MarketEvent> ringBuffer, RingBuffer<RawFeedEvent> rawFeedRingBuffer,
+            InstrumentMaster instrumentMaster) {
+        this.decoder = new FeedDecoder(ringBuffer, rawFeedRingBuffer, instrumentMaster);
+        if (ConfigLoader.getBooleanProperty("orderbook.enabled", true)) {
+            decoder.setOrderBookEngine(new OrderBookEngine(instrumentMaster.getInstrumentIdCapacity()));
+        }
+        this.baseDirectory = Path.of(ConfigLoader.getProperty("journal.dir", "journal"));
+        this.session = ConfigLoader.getProperty("journal.replay.session", "");
+        this.realtime = ConfigLoader.getBooleanProperty("journal.replay.realtime", false);
+    }
+
+    public FeedDecoder getDecoder() {
+        return decoder;
+    }
+
+    @Override
+    public void start() {
+        try {
+            Path sessionDirectory = session.isEmpty()
+                    ? FrameJournalReader.latestSession(baseDirectory)
+                    : baseDirectory.resolve(session);
+            if (sessionDirectory == null) {
+                logger.error("No journal session found under {}", baseDirectory);
+                return;
+            }
+            logger.info("Starting journal replay from {} (realtime={})", sessionDirectory, realtime);
+
+            long[] firstNanos = {0};
+            long startedAt = System.nanoTime();
+            long frames = new FrameJournalReader(sessionDirectory).replay((frame, receiveNanos, receiveMillis) -> {
+                if (realtime) {
+                    if (firstNanos[0] == 0) {
+                        firstNanos[0] = receiveNanos;
+                    }
+                    long due = startedAt + (receiveNanos - firstNanos[0]);
+                    long wait = due - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+                decoder.decode(frame);
+            });
+            decoder.flush();
+            double seconds = (System.nanoTime() - startedAt) / 1e9;
+            logger.info("Journal replay finished. Frames: {} in {} s ({} frames/s)",
+                    frames, String.format("%.2f", seconds), seconds > 0 ? (long) (frames / seconds) : frames);
+        } catch (Exception e) {
+            logger.error("Error during journal replay", e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.trading.hf;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide registry of per-stage latency histograms, from socket receive to signal
+ * publish. Timestamps are System.nanoTime() values carried on MarketEvent; events without a
+ * receive stamp (replays) are not recorded.
+ *
+ * Stages:
+ * <ul>
+ *   <li>exchange_to_receive - FeedResponse.currentTs to frame receive (wall clock, ms resolution)</li>
+ *   <li>frame_queue - frame receive to decode start (frame ring wait)</li>
+ *   <li>decode - decode of one frame</li>
+ *   <li>receive_to_publish - frame receive to market ring publish</li>
+ *   <li>handler_wait.&lt;name&gt; - market ring publish to handler start</li>
+ *   <li>handler_service.&lt;name&gt; - time spent inside the handler</li>
+ *   <li>receive_to_signal.&lt;source&gt; - frame receive to SignalEvent publish</li>
+ * </ul>
+ */
+public final class LatencyTracker {
+
+    public static final String EXCHANGE_TO_RECEIVE = "exchange_to_receive";
+    public static final String FRAME_QUEUE = "frame_queue";
+    public static final String DECODE = "decode";
+    public static final String RECEIVE_TO_PUBLISH = "receive_to_publish";
+    public static final String HANDLER_WAIT = "handler_wait.";
+    public static final String HANDLER_SERVICE = "handler_service.";
+    public static final String RECEIVE_TO_SIGNAL = "receive_to_signal.";
+
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    private LatencyTracker() {
+    }
+
+    /** Returns the stage histogram, creating it on first use. Callers on hot paths should keep the reference. */
+    public static LatencyHistogram histogram(String stage) {
+        return histograms.computeIfAbsent(stage, LatencyHistogram::new);
+    }
+
+    public static void recordSince(LatencyHistogram histogram, long startNanos) {
+        if (startNanos != 0) {
+            histogram.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    /** Snapshot of every stage, ordered by stage name. */
+    public static Map<String, LatencyHistogram.Snapshot> snapshot() {
+        Map<String, LatencyHistogram.Snapshot> snapshot = new LinkedHashMap<>();
+        histograms.keySet().stream().sorted()
+                .forEach(stage -> snapshot.put(stage, histograms.get(stage).snapshot()));
+        return snapshot;
+    }
+
+    public static void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+}
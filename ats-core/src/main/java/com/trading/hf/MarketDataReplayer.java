@@ -8,10 +8,12 @@ import java.time.Instant;
 public class MarketDataReplayer {
 
     private final RingBuffer<MarketEvent> ringBuffer;
+    private final InstrumentMaster instrumentMaster;
     private final String questdbConnectionString;
 
-    public MarketDataReplayer(RingBuffer<MarketEvent> ringBuffer, String questdbConnectionString) {
+    public MarketDataReplayer(RingBuffer<MarketEvent> ringBuffer, InstrumentMaster instrumentMaster, String questdbConnectionString) {
         this.ringBuffer = ringBuffer;
+        this.instrumentMaster = instrumentMaster;
         this.questdbConnectionString = questdbConnectionString;
     }
 
@@ -27,10 +29,13 @@ public class MarketDataReplayer {
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
+                    String rowSymbol = rs.getString("symbol");
+                    int instrumentId = instrumentMaster.getInstrumentId(rowSymbol);
                     long sequence = ringBuffer.next();
                     try {
                         MarketEvent event = ringBuffer.get(sequence);
-                        event.setSymbol(rs.getString("symbol"));
+                        event.setSymbol(rowSymbol);
+                        event.setInstrumentId(instrumentId);
                         event.setLtp(rs.getDouble("ltp"));
                         event.setLtq(rs.getLong("ltq"));
                         event.setTs(rs.getTimestamp("timestamp").getTime());
@@ -2,190 +2,164 @@ package com.trading.hf;
 
 import com.lmax.disruptor.EventFactory;
 
-public class MarketEvent {
-    private String symbol;
-    private double ltp;
-    private long ltt;
-    private long ltq;
-    private double cp;
-    private double tbq;
-    private double tsq;
-    private long vtt;
-    private double oi;
-    private double iv;
-    private double atp;
-    private long ts;
-    private double theta;
-    private double bestBidPrice;
-    private double bestAskPrice;
-    private double dayOpen;
-    private double dayHigh;
-    private double dayLow;
-    private double dayClose;
-    private double optionDelta;
-
-    // Padding to prevent false sharing
-    private long p1, p2, p3, p4, p5, p6, p7;
-
-    public double getBestBidPrice() {
-        return bestBidPrice;
-    }
+/**
+ * A market update as the handlers see it. {@link HeapMarketEvent} keeps the fields on the heap;
+ * {@link OffHeapMarketEvent} is a flyweight over a slot of an off-heap region and resolves the
+ * symbol from the instrument id.
+ */
+public interface MarketEvent {
 
-    public void setBestBidPrice(double bestBidPrice) {
-        this.bestBidPrice = bestBidPrice;
-    }
+    double getBestBidPrice();
 
-    public double getBestAskPrice() {
-        return bestAskPrice;
-    }
+    void setBestBidPrice(double bestBidPrice);
 
-    public void setBestAskPrice(double bestAskPrice) {
-        this.bestAskPrice = bestAskPrice;
-    }
+    double getBestAskPrice();
 
-    public String getSymbol() {
-        return symbol;
-    }
+    void setBestAskPrice(double bestAskPrice);
 
-    public void setSymbol(String symbol) {
-        this.symbol = symbol;
-    }
+    String getSymbol();
 
-    public double getLtp() {
-        return ltp;
-    }
+    /** Ignored by events that keep only the instrument id ({@link OffHeapMarketEvent}). */
+    void setSymbol(String symbol);
 
-    public void setLtp(double ltp) {
-        this.ltp = ltp;
-    }
+    /** Dense id from {@link InstrumentMaster#getInstrumentId(String)}; -1 if the publisher did not resolve one. */
+    int getInstrumentId();
 
-    public long getLtt() {
-        return ltt;
-    }
+    void setInstrumentId(int instrumentId);
 
-    public void setLtt(long ltt) {
-        this.ltt = ltt;
-    }
+    double getLtp();
 
-    public long getLtq() {
-        return ltq;
-    }
+    void setLtp(double ltp);
 
-    public void setLtq(long ltq) {
-        this.ltq = ltq;
-    }
+    long getLtt();
 
-    public double getCp() {
-        return cp;
-    }
+    void setLtt(long ltt);
 
-    public void setCp(double cp) {
-        this.cp = cp;
-    }
+    long getLtq();
 
-    public double getTbq() {
-        return tbq;
-    }
+    void setLtq(long ltq);
 
-    public void setTbq(double tbq) {
-        this.tbq = tbq;
-    }
+    double getCp();
 
-    public double getTsq() {
-        return tsq;
-    }
+    void setCp(double cp);
 
-    public void setTsq(double tsq) {
-        this.tsq = tsq;
-    }
+    double getTbq();
 
-    public long getVtt() {
-        return vtt;
-    }
+    void setTbq(double tbq);
 
-    public void setVtt(long vtt) {
-        this.vtt = vtt;
-    }
+    double getTsq();
 
-    public double getOi() {
-        return oi;
-    }
+    void setTsq(double tsq);
 
-    public void setOi(double oi) {
-        this.oi = oi;
-    }
+    long getVtt();
 
-    public double getIv() {
-        return iv;
-    }
+    void setVtt(long vtt);
 
-    public void setIv(double iv) {
-        this.iv = iv;
-    }
+    double getOi();
 
-    public double getAtp() {
-        return atp;
-    }
+    void setOi(double oi);
 
-    public void setAtp(double atp) {
-        this.atp = atp;
-    }
+    double getIv();
 
-    public long getTs() {
-        return ts;
-    }
+    void setIv(double iv);
 
-    public void setTs(long ts) {
-        this.ts = ts;
-    }
+    double getAtp();
 
-    public double getTheta() {
-        return theta;
-    }
+    void setAtp(double atp);
 
-    public void setTheta(double theta) {
-        this.theta = theta;
-    }
+    long getTs();
 
-    public double getDayOpen() {
-        return dayOpen;
-    }
+    void setTs(long ts);
 
-    public void setDayOpen(double dayOpen) {
-        this.dayOpen = dayOpen;
-    }
+    double getTheta();
 
-    public double getDayHigh() {
-        return dayHigh;
-    }
+    void setTheta(double theta);
 
-    public void setDayHigh(double dayHigh) {
-        this.dayHigh = dayHigh;
-    }
+    double getDayOpen();
 
-    public double getDayLow() {
-        return dayLow;
-    }
+    void setDayOpen(double dayOpen);
 
-    public void setDayLow(double dayLow) {
-        this.dayLow = dayLow;
-    }
+    double getDayHigh();
 
-    public double getDayClose() {
-        return dayClose;
-    }
+    void setDayHigh(double dayHigh);
 
-    public void setDayClose(double dayClose) {
-        this.dayClose = dayClose;
-    }
+    double getDayLow();
 
-    public double getOptionDelta() {
-        return optionDelta;
-    }
+    void setDayLow(double dayLow);
+
+    double getDayClose();
+
+    void setDayClose(double dayClose);
+
+    double getOptionDelta();
+
+    void setOptionDelta(double optionDelta);
+
+    double getMicroprice();
 
-    public void setOptionDelta(double optionDelta) {
-        this.optionDelta = optionDelta;
+    void setMicroprice(double microprice);
+
+    /** Depth-weighted bid/ask quantity imbalance over the top levels, in [-1, 1]. */
+    double getBookImbalance();
+
+    void setBookImbalance(double bookImbalance);
+
+    double getSpread();
+
+    void setSpread(double spread);
+
+    /** Frame receive time on the socket thread (System.nanoTime); 0 for replayed events. */
+    long getReceiveNanos();
+
+    void setReceiveNanos(long receiveNanos);
+
+    long getDecodeNanos();
+
+    void setDecodeNanos(long decodeNanos);
+
+    long getPublishNanos();
+
+    void setPublishNanos(long publishNanos);
+
+    /** FeedResponse.currentTs of the frame this event came from (epoch ms). */
+    long getExchangeTs();
+
+    void setExchangeTs(long exchangeTs);
+
+    /** Copies every field of {@code other} into this event (through accessors, so either side may be off-heap). */
+    default void copyFrom(MarketEvent other) {
+        setSymbol(other.getSymbol());
+        setInstrumentId(other.getInstrumentId());
+        setLtp(other.getLtp());
+        setLtt(other.getLtt());
+        setLtq(other.getLtq());
+        setCp(other.getCp());
+        setTbq(other.getTbq());
+        setTsq(other.getTsq());
+        setVtt(other.getVtt());
+        setOi(other.getOi());
+        setIv(other.getIv());
+        setAtp(other.getAtp());
+        setTs(other.getTs());
+        setTheta(other.getTheta());
+        setBestBidPrice(other.getBestBidPrice());
+        setBestAskPrice(other.getBestAskPrice());
+        setDayOpen(other.getDayOpen());
+        setDayHigh(other.getDayHigh());
+        setDayLow(other.getDayLow());
+        setDayClose(other.getDayClose());
+        setOptionDelta(other.getOptionDelta());
+        setMicroprice(other.getMicroprice());
+        setBookImbalance(other.getBookImbalance());
+        setSpread(other.getSpread());
+        setReceiveNanos(other.getReceiveNanos());
+        setDecodeNanos(other.getDecodeNanos());
+        setPublishNanos(other.getPublishNanos());
+        setExchangeTs(other.getExchangeTs());
     }
 
-    public final static EventFactory<MarketEvent> EVENT_FACTORY = MarketEvent::new;
+    /** Resets every field so a reused ring slot carries nothing over from its previous instrument. */
+    void clear();
+
+    EventFactory<MarketEvent> EVENT_FACTORY = HeapMarketEvent::new;
 }
@@ -0,0 +1,174 @@
+package com.trading.hf;
+
+import com.lmax.disruptor.EventHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Last-value stage for slow consumers. On the market ring it only copies each tick into a
+ * per-instrument slot and marks the instrument dirty; a drain thread hands the latest value of
+ * every changed instrument to the wrapped handler at its own pace, so intermediate ticks of a
+ * busy instrument are conflated away instead of holding back the ring.
+ *
+ * The wrapped handler sees one event per changed instrument per drain, with sequence -1 and
+ * endOfBatch set on the last one.
+ */
+public class MarketEventConflator implements EventHandler<MarketEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarketEventConflator.class);
+    private static final VarHandle DIRTY_BITS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final String name;
+    private final EventHandler<MarketEvent> consumer;
+    private final long intervalNanos;
+    private final MarketEvent scratch = new HeapMarketEvent();
+
+    // Slots and dirty bits are replaced together when an id outgrows them (producer thread only)
+    private volatile Slots slots;
+    private volatile boolean running;
+    private Thread drainThread;
+
+    // Written by the ring thread only
+    private volatile long updatesReceived;
+    private volatile long updatesConflated;
+    // Written by the drain thread only
+    private volatile long updatesDelivered;
+    private volatile long drains;
+
+    public MarketEventConflator(String name, EventHandler<MarketEvent> consumer, long intervalMillis) {
+        this.name = name;
+        this.consumer = consumer;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, intervalMillis));
+        this.slots = new Slots((int) ConfigLoader.getLongProperty("instrument.id.capacity", 1024));
+    }
+
+    @Override
+    public void onStart() {
+        running = true;
+        drainThread = Thread.ofPlatform().name("conflator-" + name).daemon(true).start(this::drainLoop);
+    }
+
+    @Override
+    public void onShutdown() {
+        running = false;
+        if (drainThread != null) {
+            LockSupport.unpark(drainThread);
+        }
+    }
+
+    @Override
+    public void onEvent(MarketEvent event, long sequence, boolean endOfBatch) {
+        int id = event.getInstrumentId();
+        if (id < 0) {
+            return;
+        }
+        Slots current = slots;
+        if (id >= current.events.length) {
+            current = current.grow(id + 1);
+            slots = current;
+        }
+        MarketEvent slot = current.events[id];
+        synchronized (slot) {
+            slot.copyFrom(event);
+        }
+        long mask = 1L << (id & 63);
+        long previous = (long) DIRTY_BITS.getAndBitwiseOr(current.dirty, id >>> 6, mask);
+        updatesReceived++;
+        if ((previous & mask) != 0) {
+            updatesConflated++;
+        }
+    }
+
+    private void drainLoop() {
+        while (running) {
+            long start = System.nanoTime();
+            try {
+                drain();
+            } catch (Exception e) {
+                logger.error("[{}] Conflated consumer failed", name, e);
+            }
+            long wait = intervalNanos - (System.nanoTime() - start);
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+
+    /** Delivers the latest value of every instrument changed since the last drain; returns how many. */
+    public int drain() throws Exception {
+        Slots current = slots;
+        long[] dirty = current.dirty;
+        int delivered = 0;
+        int pendingWord = -1;
+        long pendingBits = 0;
+        for (int word = 0; word < dirty.length; word++) {
+            if ((long) DIRTY_BITS.getAcquire(dirty, word) == 0) {
+                continue;
+            }
+            long bits = (long) DIRTY_BITS.getAndSet(dirty, word, 0L);
+            // Deliver one word behind, so the very last event can carry endOfBatch
+            if (pendingBits != 0) {
+                delivered += deliver(current, pendingWord, pendingBits, false);
+            }
+            pendingWord = word;
+            pendingBits = bits;
+        }
+        if (pendingBits != 0) {
+            delivered += deliver(current, pendingWord, pendingBits, true);
+        }
+        updatesDelivered += delivered;
+        drains++;
+        return delivered;
+    }
+
+    private int deliver(Slots current, int word, long bits, boolean lastWord) throws Exception {
+        int count = 0;
+        while (bits != 0) {
+            int id = (word << 6) + Long.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            MarketEvent slot = current.events[id];
+            synchronized (slot) {
+                scratch.copyFrom(slot);
+            }
+            consumer.onEvent(scratch, -1, lastWord && bits == 0);
+            count++;
+        }
+        return count;
+    }
+
+    public String getName() { return name; }
+    public long getUpdatesReceived() { return updatesReceived; }
+    /** Updates overwritten before the consumer drained them. */
+    public long getUpdatesConflated() { return updatesConflated; }
+    public long getUpdatesDelivered() { return updatesDelivered; }
+    public long getDrains() { return drains; }
+
+    private static final class Slots {
+        final MarketEvent[] events;
+        final long[] dirty;
+
+        Slots(int capacity) {
+            this(new MarketEvent[0], new long[0], capacity);
+        }
+
+        private Slots(MarketEvent[] previous, long[] previousDirty, int capacity) {
+            events = Arrays.copyOf(previous, capacity);
+            for (int i = previous.length; i < capacity; i++) {
+                events[i] = new HeapMarketEvent();
+            }
+            dirty = Arrays.copyOf(previousDirty, (capacity + 63) >>> 6);
+        }
+
+        // Slot objects are shared with the old arrays; a bit the drain thread still clears in
+        // the old array can only cause a duplicate delivery, never a missed one.
+        Slots grow(int minimumCapacity) {
+            return new Slots(events, dirty, Math.max(minimumCapacity, events.length * 2));
+        }
+    }
+}
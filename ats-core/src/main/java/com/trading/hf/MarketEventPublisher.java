@@ -0,0 +1,252 @@
+package com.trading.hf;
+
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.RingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Producer side of the market ring with a backpressure policy for when the ring is full,
+ * chosen per instrument class by market.backpressure.policy[.&lt;class&gt;]:
+ * <ul>
+ *   <li>block: wait in next() for a free slot (the previous behaviour);</li>
+ *   <li>drop: discard the new update;</li>
+ *   <li>conflate: keep the update in a per-instrument side slot, overwritten by newer updates of
+ *       the same instrument, and publish it on the first publish or {@link #drainWaiting} call
+ *       that finds room; an idle producer has to call drainWaiting itself (FramePipeline does).</li>
+ * </ul>
+ * While an instrument has an update waiting in the side buffer, its newer updates go there too,
+ * so an instrument's updates are never published out of order. Dropped, conflated and blocked
+ * updates are counted and logged at most every few seconds.
+ *
+ * Not thread-safe: one publisher per producer thread.
+ */
+public class MarketEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarketEventPublisher.class);
+    private static final long REPORT_INTERVAL_NANOS = 5_000_000_000L;
+
+    public enum Policy { BLOCK, DROP, CONFLATE }
+
+    private final RingBuffer<MarketEvent> ringBuffer;
+    private final InstrumentMaster instrumentMaster;
+    private final Map<InstrumentClass, Policy> policies = new EnumMap<>(InstrumentClass.class);
+    private final boolean blockingOnly;
+
+    // Policy per instrument id, resolved on the first update (null = not yet classified)
+    private Policy[] policyById;
+
+    // Side buffer of conflated updates: one slot per instrument, and the waiting ids in arrival order
+    private MarketEvent[] sideSlots;
+    private boolean[] waiting;
+    private int[] waitQueue = new int[64];
+    private int waitHead;
+    private int waitCount;
+
+    private long published;
+    private long dropped;
+    private long conflated;
+    private long blocked;
+    private long lastReportNanos;
+    private long reportedDropped;
+    private long reportedConflated;
+    private long reportedBlocked;
+
+    public MarketEventPublisher(RingBuffer<MarketEvent> ringBuffer, InstrumentMaster instrumentMaster) {
+        this.ringBuffer = ringBuffer;
+        this.instrumentMaster = instrumentMaster;
+        Policy defaultPolicy = parsePolicy(ConfigLoader.getProperty("market.backpressure.policy", "block"), Policy.BLOCK);
+        boolean allBlocking = true;
+        for (InstrumentClass instrumentClass : InstrumentClass.values()) {
+            Policy policy = parsePolicy(ConfigLoader.getProperty(
+                    "market.backpressure.policy." + instrumentClass.name().toLowerCase(), ""), defaultPolicy);
+            policies.put(instrumentClass, policy);
+            allBlocking &= policy == Policy.BLOCK;
+        }
+        this.blockingOnly = allBlocking;
+        int capacity = instrumentMaster != null ? instrumentMaster.getInstrumentIdCapacity()
+                : (int) ConfigLoader.getLongProperty("instrument.id.capacity", 1024);
+        this.policyById = new Policy[capacity];
+        this.sideSlots = new MarketEvent[capacity];
+        this.waiting = new boolean[capacity];
+    }
+
+    /**
+     * Claims n consecutive slots for the caller to fill and publish itself; returns the highest
+     * sequence, or -1 when the ring is full (or conflated updates are still waiting) and the
+     * updates have to go through {@link #publish} one by one instead.
+     */
+    public long tryClaim(int n) {
+        if (waitCount > 0 && drainWaiting() > 0) {
+            return -1;
+        }
+        try {
+            return ringBuffer.tryNext(n);
+        } catch (InsufficientCapacityException e) {
+            if (blockingOnly) {
+                blocked += n;
+                report();
+                return ringBuffer.next(n);
+            }
+            return -1;
+        }
+    }
+
+    /** Marks n slots claimed through {@link #tryClaim} as published. */
+    public void claimed(int n) {
+        published += n;
+    }
+
+    /** Publishes a copy of the event, applying the instrument's policy when the ring is full. */
+    public void publish(MarketEvent event) {
+        int id = event.getInstrumentId();
+        Policy policy = policyOf(id, event.getSymbol());
+        if (waitCount > 0) {
+            drainWaiting();
+        }
+        if (policy == Policy.CONFLATE && id >= 0 && id < waiting.length && waiting[id]) {
+            sideSlots[id].copyFrom(event);
+            conflated++;
+            report();
+            return;
+        }
+        try {
+            publishTo(ringBuffer.tryNext(), event);
+            return;
+        } catch (InsufficientCapacityException e) {
+            // handled by policy below
+        }
+        switch (policy) {
+            case BLOCK -> {
+                blocked++;
+                publishTo(ringBuffer.next(), event);
+            }
+            case DROP -> dropped++;
+            case CONFLATE -> {
+                if (id < 0) {
+                    dropped++;
+                } else {
+                    enqueue(id, event);
+                }
+            }
+        }
+        report();
+    }
+
+    /** Publishes waiting conflated updates while the ring has room; returns how many are still waiting. */
+    public int drainWaiting() {
+        while (waitCount > 0) {
+            long sequence;
+            try {
+                sequence = ringBuffer.tryNext();
+            } catch (InsufficientCapacityException e) {
+                return waitCount;
+            }
+            publishTo(sequence, dequeue());
+        }
+        return 0;
+    }
+
+    /** Publishes every waiting update, blocking for ring space; for the end of a replay. */
+    public void flush() {
+        while (waitCount > 0) {
+            publishTo(ringBuffer.next(), dequeue());
+        }
+    }
+
+    private void publishTo(long sequence, MarketEvent source) {
+        try {
+            MarketEvent event = ringBuffer.get(sequence);
+            event.copyFrom(source);
+            event.setPublishNanos(System.nanoTime());
+        } finally {
+            ringBuffer.publish(sequence);
+        }
+        published++;
+    }
+
+    private void enqueue(int id, MarketEvent event) {
+        MarketEvent slot = sideSlots[id];
+        if (slot == null) {
+            slot = new HeapMarketEvent();
+            sideSlots[id] = slot;
+        }
+        slot.copyFrom(event);
+        waiting[id] = true;
+        if (waitCount == waitQueue.length) {
+            int[] grown = new int[waitQueue.length * 2];
+            for (int i = 0; i < waitCount; i++) {
+                grown[i] = waitQueue[(waitHead + i) % waitQueue.length];
+            }
+            waitQueue = grown;
+            waitHead = 0;
+        }
+        waitQueue[(waitHead + waitCount) % waitQueue.length] = id;
+        waitCount++;
+    }
+
+    private MarketEvent dequeue() {
+        int id = waitQueue[waitHead];
+        waitHead = (waitHead + 1) % waitQueue.length;
+        waitCount--;
+        waiting[id] = false;
+        return sideSlots[id];
+    }
+
+    private Policy policyOf(int id, String symbol) {
+        if (blockingOnly) {
+            return Policy.BLOCK;
+        }
+        if (id < 0) {
+            return symbol != null ? policies.get(InstrumentClass.of(symbol, instrumentMaster)) : Policy.BLOCK;
+        }
+        if (id >= policyById.length) {
+            int capacity = Math.max(id + 1, policyById.length * 2);
+            policyById = Arrays.copyOf(policyById, capacity);
+            sideSlots = Arrays.copyOf(sideSlots, capacity);
+            waiting = Arrays.copyOf(waiting, capacity);
+        }
+        Policy policy = policyById[id];
+        if (policy == null) {
+            policy = symbol != null ? policies.get(InstrumentClass.of(symbol, instrumentMaster)) : Policy.BLOCK;
+            policyById[id] = policy;
+        }
+        return policy;
+    }
+
+    private void report() {
+        long now = System.nanoTime();
+        if (now - lastReportNanos < REPORT_INTERVAL_NANOS) {
+            return;
+        }
+        lastReportNanos = now;
+        logger.warn("Market ring full: dropped={} (+{}) conflated={} (+{}) blocked={} (+{}) waiting={} policies={}",
+                dropped, dropped - reportedDropped, conflated, conflated - reportedConflated,
+                blocked, blocked - reportedBlocked, waitCount, policies);
+        reportedDropped = dropped;
+        reportedConflated = conflated;
+        reportedBlocked = blocked;
+    }
+
+    private static Policy parsePolicy(String value, Policy fallback) {
+        return switch (value.trim().toLowerCase()) {
+            case "block" -> Policy.BLOCK;
+            case "drop", "drop-newest" -> Policy.DROP;
+            case "conflate" -> Policy.CONFLATE;
+            default -> fallback;
+        };
+    }
+
+    public long getPublished() { return published; }
+    /** Updates discarded because the ring was full. */
+    public long getDropped() { return dropped; }
+    /** Waiting updates overwritten by a newer update of the same instrument. */
+    public long getConflated() { return conflated; }
+    /** Updates whose publish had to wait for ring space. */
+    public long getBlocked() { return blocked; }
+    public int getWaiting() { return waitCount; }
+}
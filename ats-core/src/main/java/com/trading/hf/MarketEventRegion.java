@@ -0,0 +1,105 @@
+package com.trading.hf;
+
+import com.lmax.disruptor.EventFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntFunction;
+
+/**
+ * Contiguous off-heap storage for the slots of an {@link OffHeapMarketEvent} ring. The region is
+ * a 64-byte header followed by slotCount slots of {@link OffHeapMarketEvent#SLOT_SIZE} bytes,
+ * little-endian and cache-line aligned, so ring slot i always sits at the same offset. Backed by
+ * a direct buffer, or by a memory-mapped file when a path is given, in which case the same bytes
+ * can be journaled or read by another process without re-serialising.
+ *
+ * Header: int magic, int version, int slot size, int slot count.
+ *
+ * Slots hold instrument ids only; the events resolve symbols through the given lookup.
+ */
+public class MarketEventRegion {
+
+    public static final int MAGIC = 0x4D455652; // "MEVR"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 64;
+    private static final int CACHE_LINE = 64;
+
+    private final ByteBuffer buffer;
+    private final int slotCount;
+    private final Path file;
+    private final IntFunction<String> symbols;
+    private int nextSlot;
+
+    /** Direct-buffer region; symbols maps instrument ids to keys. */
+    public MarketEventRegion(int slotCount, IntFunction<String> symbols) {
+        this(slotCount, null, symbols);
+    }
+
+    /** Region mapped from file (created or overwritten), or a direct buffer when file is null. */
+    public MarketEventRegion(int slotCount, Path file, IntFunction<String> symbols) {
+        long size = HEADER_SIZE + (long) slotCount * OffHeapMarketEvent.SLOT_SIZE;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Region of " + slotCount + " slots exceeds 2 GB");
+        }
+        this.slotCount = slotCount;
+        this.file = file;
+        this.symbols = symbols;
+        ByteBuffer region;
+        if (file == null) {
+            region = ByteBuffer.allocateDirect((int) size + CACHE_LINE).alignedSlice(CACHE_LINE);
+        } else {
+            try {
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    // Mappings are page aligned, so the slots stay cache-line aligned
+                    region = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map market event region " + file, e);
+            }
+        }
+        this.buffer = region.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, OffHeapMarketEvent.SLOT_SIZE);
+        buffer.putInt(12, slotCount);
+    }
+
+    /**
+     * Event factory for the ring: the ring fills its entries in sequence order, so entry i gets
+     * slot i. Each slot can be handed out once.
+     */
+    public EventFactory<MarketEvent> factory() {
+        return () -> {
+            synchronized (this) {
+                if (nextSlot == slotCount) {
+                    throw new IllegalStateException("Market event region has only " + slotCount + " slots");
+                }
+                return new OffHeapMarketEvent(buffer, slotOffset(nextSlot++), symbols);
+            }
+        };
+    }
+
+    public int slotOffset(int slot) {
+        return HEADER_SIZE + slot * OffHeapMarketEvent.SLOT_SIZE;
+    }
+
+    /** Slot holding a ring sequence, for readers of the raw bytes (ring size == slot count). */
+    public int slotOffsetOfSequence(long sequence) {
+        return slotOffset((int) (sequence & (slotCount - 1)));
+    }
+
+    public ByteBuffer getBuffer() { return buffer; }
+    public int getSlotCount() { return slotCount; }
+    /** Backing file, or null for a direct buffer. */
+    public Path getFile() { return file; }
+}
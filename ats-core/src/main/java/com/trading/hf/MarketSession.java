@@ -0,0 +1,79 @@
+package com.trading.hf;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Trading session state per exchange segment, driven by the marketInfo.segmentStatus
+ * messages of the Upstox feed. The session counts as open while any of the watched segments
+ * (market.session.segments) is in NORMAL_OPEN. Until the feed reports a status,
+ * market.session.assume.open decides, so replays run as if the market were open.
+ */
+public final class MarketSession {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarketSession.class);
+
+    // MarketDataFeed.proto MarketStatus
+    public static final int PRE_OPEN_START = 0;
+    public static final int PRE_OPEN_END = 1;
+    public static final int NORMAL_OPEN = 2;
+    public static final int NORMAL_CLOSE = 3;
+    public static final int CLOSING_START = 4;
+    public static final int CLOSING_END = 5;
+
+    private static final Set<String> watchedSegments = Arrays.stream(
+                    ConfigLoader.getProperty("market.session.segments", "NSE_EQ,NSE_FO,NSE_INDEX").split(","))
+            .map(String::trim)
+            .filter(s -> !s.isEmpty())
+            .collect(Collectors.toSet());
+    private static final Map<String, Integer> segmentStatus = new ConcurrentHashMap<>();
+    private static volatile boolean open = ConfigLoader.getBooleanProperty("market.session.assume.open", true);
+
+    private MarketSession() {
+    }
+
+    /** True while the watched segments are trading; read on every wait-strategy spin, so it is a single volatile read. */
+    public static boolean isOpen() {
+        return open;
+    }
+
+    public static void onSegmentStatus(String segment, int status) {
+        Integer previous = segmentStatus.put(segment, status);
+        if (previous == null || previous != status) {
+            logger.info("Segment {} status: {}", segment, statusName(status));
+        }
+        boolean nowOpen = false;
+        for (Map.Entry<String, Integer> entry : segmentStatus.entrySet()) {
+            if (watchedSegments.contains(entry.getKey()) && entry.getValue() == NORMAL_OPEN) {
+                nowOpen = true;
+                break;
+            }
+        }
+        if (nowOpen != open) {
+            open = nowOpen;
+            logger.info("Market session {}", nowOpen ? "OPEN: wait strategies running hot" : "CLOSED: wait strategies parking");
+        }
+    }
+
+    public static Map<String, Integer> getSegmentStatus() {
+        return Map.copyOf(segmentStatus);
+    }
+
+    public static String statusName(int status) {
+        return switch (status) {
+            case PRE_OPEN_START -> "PRE_OPEN_START";
+            case PRE_OPEN_END -> "PRE_OPEN_END";
+            case NORMAL_OPEN -> "NORMAL_OPEN";
+            case NORMAL_CLOSE -> "NORMAL_CLOSE";
+            case CLOSING_START -> "CLOSING_START";
+            case CLOSING_END -> "CLOSING_END";
+            default -> "UNKNOWN(" + status + ")";
+        };
+    }
+}
@@ -19,7 +19,9 @@ import java.util.zip.GZIPInputStream;
 
 public class MySampleDataReplayer implements IDataReplayer {
     private static final Logger logger = LoggerFactory.getLogger(MySampleDataReplayer.class);
-    private final RingBuffer<MarketEvent> ringBuffer;
+    private final MarketEventPublisher publisher;
+    private final MarketEvent scratch = new HeapMarketEvent();
+    private final InstrumentMaster instrumentMaster;
     private final String dataDirectory;
     private final Gson gson = new Gson();
     private final long simulationEventDelayMs;
@@ -28,8 +30,9 @@ public class MySampleDataReplayer implements IDataReplayer {
     private final List<String> dataFiles = Arrays.asList(
             "simulation_data.json.gz");
 
-    public MySampleDataReplayer(RingBuffer<MarketEvent> ringBuffer, String dataDirectory) {
-        this.ringBuffer = ringBuffer;
+    public MySampleDataReplayer(RingBuffer<MarketEvent> ringBuffer, String dataDirectory, InstrumentMaster instrumentMaster) {
+        this.publisher = new MarketEventPublisher(ringBuffer, instrumentMaster);
+        this.instrumentMaster = instrumentMaster;
         this.dataDirectory = dataDirectory;
         this.simulationEventDelayMs = Long.parseLong(ConfigLoader.getProperty("simulation.event.delay.ms", "10"));
     }
@@ -135,27 +138,26 @@ public class MySampleDataReplayer implements IDataReplayer {
                 }
             }
 
-            long sequence = ringBuffer.next();
-            try {
-                MarketEvent event = ringBuffer.get(sequence);
-                event.setSymbol(instrumentKey);
-                event.setLtp(ltp);
-                event.setLtt(ltt);
-                event.setLtq(ltq);
-                event.setCp(cp);
-                event.setTbq(tbq);
-                event.setTsq(tsq);
-                event.setVtt(vtt);
-                event.setOi(oi);
-                event.setIv(0);
-                event.setAtp(atp);
-                event.setTs(ltt);
-                event.setBestBidPrice(bestBidPrice);
-                event.setBestAskPrice(bestAskPrice);
-                event.setTheta(theta);
-            } finally {
-                ringBuffer.publish(sequence);
-            }
+            int instrumentId = instrumentMaster.getInstrumentId(instrumentKey);
+            MarketEvent event = scratch;
+            event.clear();
+            event.setSymbol(instrumentKey);
+            event.setInstrumentId(instrumentId);
+            event.setLtp(ltp);
+            event.setLtt(ltt);
+            event.setLtq(ltq);
+            event.setCp(cp);
+            event.setTbq(tbq);
+            event.setTsq(tsq);
+            event.setVtt(vtt);
+            event.setOi(oi);
+            event.setIv(0);
+            event.setAtp(atp);
+            event.setTs(ltt);
+            event.setBestBidPrice(bestBidPrice);
+            event.setBestAskPrice(bestAskPrice);
+            event.setTheta(theta);
+            publisher.publish(event);
 
         } catch (Exception e) {
             System.err.println("Error mapping data: " + e.getMessage() + " on line " + gson.toJson(data));
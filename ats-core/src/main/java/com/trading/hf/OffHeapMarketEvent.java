@@ -0,0 +1,363 @@
+package com.trading.hf;
+
+import java.nio.ByteBuffer;
+import java.util.function.IntFunction;
+
+/**
+ * Flyweight {@link MarketEvent} over one fixed-size slot of a {@link MarketEventRegion}. Every
+ * field lives in the region's contiguous off-heap buffer at a fixed little-endian offset, slots
+ * are {@link #SLOT_SIZE} bytes and cache-line aligned, and the fields handlers read on every tick
+ * share the first cache line. Handlers see the same {@link MarketEvent} accessors as on the heap
+ * ring, so they do not know which ring they run on.
+ *
+ * The instrument key is not stored: the slot holds only the instrument id, {@link #getSymbol}
+ * maps it through the symbol lookup the flyweight was created with, and setSymbol is ignored.
+ */
+public class OffHeapMarketEvent implements MarketEvent {
+
+    public static final int SLOT_SIZE = 256;
+
+    // Slot layout: line 0 holds id, price, time, quantity and touch; the rest are grouped by use
+    public static final int INSTRUMENT_ID = 0;
+    public static final int LTP = 8;
+    public static final int LTT = 16;
+    public static final int LTQ = 24;
+    public static final int TS = 32;
+    public static final int BEST_BID_PRICE = 40;
+    public static final int BEST_ASK_PRICE = 48;
+    public static final int PUBLISH_NANOS = 56;
+    public static final int TBQ = 64;
+    public static final int TSQ = 72;
+    public static final int VTT = 80;
+    public static final int OI = 88;
+    public static final int CP = 96;
+    public static final int ATP = 104;
+    public static final int IV = 112;
+    public static final int RECEIVE_NANOS = 120;
+    public static final int DECODE_NANOS = 128;
+    public static final int EXCHANGE_TS = 136;
+    public static final int THETA = 144;
+    public static final int OPTION_DELTA = 152;
+    public static final int MICROPRICE = 160;
+    public static final int BOOK_IMBALANCE = 168;
+    public static final int SPREAD = 176;
+    public static final int DAY_OPEN = 184;
+    public static final int DAY_HIGH = 192;
+    public static final int DAY_LOW = 200;
+    public static final int DAY_CLOSE = 208;
+
+    private final ByteBuffer buffer;
+    private final int base;
+    private final IntFunction<String> symbols;
+
+    /** symbols maps an instrument id to its key (e.g. InstrumentMaster::getInstrumentKey). */
+    OffHeapMarketEvent(ByteBuffer buffer, int base, IntFunction<String> symbols) {
+        this.buffer = buffer;
+        this.base = base;
+        this.symbols = symbols;
+        buffer.putInt(base + INSTRUMENT_ID, -1);
+    }
+
+    /** Offset of this event's slot in the region buffer. */
+    public int getSlotOffset() {
+        return base;
+    }
+
+    @Override
+    public String getSymbol() {
+        int id = getInstrumentId();
+        return id >= 0 ? symbols.apply(id) : null;
+    }
+
+    @Override
+    public void setSymbol(String symbol) {
+        // Resolved from the instrument id
+    }
+
+    @Override
+    public int getInstrumentId() {
+        return buffer.getInt(base + INSTRUMENT_ID);
+    }
+
+    @Override
+    public void setInstrumentId(int instrumentId) {
+        buffer.putInt(base + INSTRUMENT_ID, instrumentId);
+    }
+
+    @Override
+    public double getLtp() {
+        return buffer.getDouble(base + LTP);
+    }
+
+    @Override
+    public void setLtp(double ltp) {
+        buffer.putDouble(base + LTP, ltp);
+    }
+
+    @Override
+    public long getLtt() {
+        return buffer.getLong(base + LTT);
+    }
+
+    @Override
+    public void setLtt(long ltt) {
+        buffer.putLong(base + LTT, ltt);
+    }
+
+    @Override
+    public long getLtq() {
+        return buffer.getLong(base + LTQ);
+    }
+
+    @Override
+    public void setLtq(long ltq) {
+        buffer.putLong(base + LTQ, ltq);
+    }
+
+    @Override
+    public long getTs() {
+        return buffer.getLong(base + TS);
+    }
+
+    @Override
+    public void setTs(long ts) {
+        buffer.putLong(base + TS, ts);
+    }
+
+    @Override
+    public double getBestBidPrice() {
+        return buffer.getDouble(base + BEST_BID_PRICE);
+    }
+
+    @Override
+    public void setBestBidPrice(double bestBidPrice) {
+        buffer.putDouble(base + BEST_BID_PRICE, bestBidPrice);
+    }
+
+    @Override
+    public double getBestAskPrice() {
+        return buffer.getDouble(base + BEST_ASK_PRICE);
+    }
+
+    @Override
+    public void setBestAskPrice(double bestAskPrice) {
+        buffer.putDouble(base + BEST_ASK_PRICE, bestAskPrice);
+    }
+
+    @Override
+    public long getPublishNanos() {
+        return buffer.getLong(base + PUBLISH_NANOS);
+    }
+
+    @Override
+    public void setPublishNanos(long publishNanos) {
+        buffer.putLong(base + PUBLISH_NANOS, publishNanos);
+    }
+
+    @Override
+    public double getTbq() {
+        return buffer.getDouble(base + TBQ);
+    }
+
+    @Override
+    public void setTbq(double tbq) {
+        buffer.putDouble(base + TBQ, tbq);
+    }
+
+    @Override
+    public double getTsq() {
+        return buffer.getDouble(base + TSQ);
+    }
+
+    @Override
+    public void setTsq(double tsq) {
+        buffer.putDouble(base + TSQ, tsq);
+    }
+
+    @Override
+    public long getVtt() {
+        return buffer.getLong(base + VTT);
+    }
+
+    @Override
+    public void setVtt(long vtt) {
+        buffer.putLong(base + VTT, vtt);
+    }
+
+    @Override
+    public double getOi() {
+        return buffer.getDouble(base + OI);
+    }
+
+    @Override
+    public void setOi(double oi) {
+        buffer.putDouble(base + OI, oi);
+    }
+
+    @Override
+    public double getCp() {
+        return buffer.getDouble(base + CP);
+    }
+
+    @Override
+    public void setCp(double cp) {
+        buffer.putDouble(base + CP, cp);
+    }
+
+    @Override
+    public double getAtp() {
+        return buffer.getDouble(base + ATP);
+    }
+
+    @Override
+    public void setAtp(double atp) {
+        buffer.putDouble(base + ATP, atp);
+    }
+
+    @Override
+    public double getIv() {
+        return buffer.getDouble(base + IV);
+    }
+
+    @Override
+    public void setIv(double iv) {
+        buffer.putDouble(base + IV, iv);
+    }
+
+    @Override
+    public long getReceiveNanos() {
+        return buffer.getLong(base + RECEIVE_NANOS);
+    }
+
+    @Override
+    public void setReceiveNanos(long receiveNanos) {
+        buffer.putLong(base + RECEIVE_NANOS, receiveNanos);
+    }
+
+    @Override
+    public long getDecodeNanos() {
+        return buffer.getLong(base + DECODE_NANOS);
+    }
+
+    @Override
+    public void setDecodeNanos(long decodeNanos) {
+        buffer.putLong(base + DECODE_NANOS, decodeNanos);
+    }
+
+    @Override
+    public long getExchangeTs() {
+        return buffer.getLong(base + EXCHANGE_TS);
+    }
+
+    @Override
+    public void setExchangeTs(long exchangeTs) {
+        buffer.putLong(base + EXCHANGE_TS, exchangeTs);
+    }
+
+    @Override
+    public double getTheta() {
+        return buffer.getDouble(base + THETA);
+    }
+
+    @Override
+    public void setTheta(double theta) {
+        buffer.putDouble(base + THETA, theta);
+    }
+
+    @Override
+    public double getOptionDelta() {
+        return buffer.getDouble(base + OPTION_DELTA);
+    }
+
+    @Override
+    public void setOptionDelta(double optionDelta) {
+        buffer.putDouble(base + OPTION_DELTA, optionDelta);
+    }
+
+    @Override
+    public double getMicroprice() {
+        return buffer.getDouble(base + MICROPRICE);
+    }
+
+    @Override
+    public void setMicroprice(double microprice) {
+        buffer.putDouble(base + MICROPRICE, microprice);
+    }
+
+    @Override
+    public double getBookImbalance() {
+        return buffer.getDouble(base + BOOK_IMBALANCE);
+    }
+
+    @Override
+    public void setBookImbalance(double bookImbalance) {
+        buffer.putDouble(base + BOOK_IMBALANCE, bookImbalance);
+    }
+
+    @Override
+    public double getSpread() {
+        return buffer.getDouble(base + SPREAD);
+    }
+
+    @Override
+    public void setSpread(double spread) {
+        buffer.putDouble(base + SPREAD, spread);
+    }
+
+    @Override
+    public double getDayOpen() {
+        return buffer.getDouble(base + DAY_OPEN);
+    }
+
+    @Override
+    public void setDayOpen(double dayOpen) {
+        buffer.putDouble(base + DAY_OPEN, dayOpen);
+    }
+
+    @Override
+    public double getDayHigh() {
+        return buffer.getDouble(base + DAY_HIGH);
+    }
+
+    @Override
+    public void setDayHigh(double dayHigh) {
+        buffer.putDouble(base + DAY_HIGH, dayHigh);
+    }
+
+    @Override
+    public double getDayLow() {
+        return buffer.getDouble(base + DAY_LOW);
+    }
+
+    @Override
+    public void setDayLow(double dayLow) {
+        buffer.putDouble(base + DAY_LOW, dayLow);
+    }
+
+    @Override
+    public double getDayClose() {
+        return buffer.getDouble(base + DAY_CLOSE);
+    }
+
+    @Override
+    public void setDayClose(double dayClose) {
+        buffer.putDouble(base + DAY_CLOSE, dayClose);
+    }
+
+    @Override
+    public void copyFrom(MarketEvent other) {
+        if (other instanceof OffHeapMarketEvent source) {
+            buffer.put(base, source.buffer, source.base, SLOT_SIZE);
+        } else {
+            MarketEvent.super.copyFrom(other);
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int offset = 0; offset < SLOT_SIZE; offset += Long.BYTES) {
+            buffer.putLong(base + offset, 0);
+        }
+        buffer.putInt(base + INSTRUMENT_ID, -1);
+    }
+}
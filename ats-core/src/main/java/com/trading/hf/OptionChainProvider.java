@@ -1,29 +1,31 @@
 package com.trading.hf;
 
 import com.lmax.disruptor.EventHandler;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
 import java.util.Comparator;
 
 public class OptionChainProvider implements EventHandler<MarketEvent> {
 
-    private final Map<String, MarketEvent> optionState = new ConcurrentHashMap<>();
-    private final Map<String, Double> sessionInitialOi = new ConcurrentHashMap<>();
-    private final AtomicReference<Double> spotPrice = new AtomicReference<>(0.0);
+    // Per-instrument state indexed by InstrumentMaster id. Slots are classified once the
+    // instrument is known to the master; non-options keep the shared NOT_AN_OPTION marker.
+    // Safe to run as several partitions: each quote has one writer, and slots are only
+    // assigned (and the array grown) under the lock in register().
+    private static final OptionQuote NOT_AN_OPTION = new OptionQuote(0, null);
+    private volatile OptionQuote[] optionsById;
+    private volatile double spotPrice = 0.0;
     private final InstrumentMaster instrumentMaster;
-    private final String indexInstrumentKey;
-    private final String indexSpotSymbol;
+    private final int indexInstrumentId;
+    private final int indexSpotId;
     private static final int STRIKE_DIFFERENCE = 50;
     private static final int WINDOW_SIZE = 4; // ATM +/- 2 strikes
 
     public OptionChainProvider(InstrumentMaster instrumentMaster, String indexInstrumentKey, String indexSpotSymbol) {
         this.instrumentMaster = instrumentMaster;
-        this.indexInstrumentKey = indexInstrumentKey;
-        this.indexSpotSymbol = indexSpotSymbol;
+        this.indexInstrumentId = instrumentMaster.getInstrumentId(indexInstrumentKey);
+        this.indexSpotId = instrumentMaster.getInstrumentId(indexSpotSymbol);
+        this.optionsById = new OptionQuote[instrumentMaster.getInstrumentIdCapacity()];
     }
 
     public OptionChainProvider(InstrumentMaster instrumentMaster) {
@@ -32,76 +34,116 @@ public class OptionChainProvider implements EventHandler<MarketEvent> {
 
     @Override
     public void onEvent(MarketEvent event, long sequence, boolean endOfBatch) {
-        String symbol = event.getSymbol();
-        if (symbol == null)
+        int id = event.getInstrumentId();
+        if (id < 0)
             return;
 
-        if (indexInstrumentKey.equals(symbol) || indexSpotSymbol.equals(symbol)) {
-            spotPrice.set(event.getLtp());
-        } else {
-            // Check if it's an option via instrument master
-            instrumentMaster.getInstrument(symbol).ifPresent(inst -> {
-                if ("CE".equalsIgnoreCase(inst.getOptionType()) || "PE".equalsIgnoreCase(inst.getOptionType())) {
-                    optionState.put(symbol, event);
-                    // Initialize session start OI if not already present
-                    sessionInitialOi.putIfAbsent(symbol, event.getOi());
-                }
-            });
+        if (id == indexInstrumentId || id == indexSpotId) {
+            spotPrice = event.getLtp();
+            return;
+        }
+
+        OptionQuote[] options = optionsById;
+        OptionQuote quote = id < options.length ? options[id] : null;
+        if (quote == null) {
+            // Check if it's an option via instrument master. Unknown keys stay unclassified,
+            // since option contracts can be added to the master after their first tick.
+            quote = instrumentMaster.getInstrument(event.getSymbol())
+                    .map(inst -> ("CE".equalsIgnoreCase(inst.getOptionType()) || "PE".equalsIgnoreCase(inst.getOptionType()))
+                            ? new OptionQuote((int) inst.getStrikePrice(), inst.getOptionType())
+                            : NOT_AN_OPTION)
+                    .orElse(null);
+            if (quote == null)
+                return;
+            quote = register(id, quote);
+        }
+        if (quote != NOT_AN_OPTION) {
+            quote.update(event.getLtp(), event.getOi());
         }
     }
 
+    private synchronized OptionQuote register(int id, OptionQuote quote) {
+        OptionQuote[] options = optionsById;
+        if (id >= options.length) {
+            options = Arrays.copyOf(options, Math.max(id + 1, instrumentMaster.getInstrumentIdCapacity()));
+            optionsById = options;
+        }
+        if (options[id] == null) {
+            options[id] = quote;
+        }
+        return options[id];
+    }
+
     public List<OptionChainDto> getOptionChainWindow() {
-        double currentSpot = spotPrice.get();
+        double currentSpot = spotPrice;
         if (currentSpot == 0.0) {
             return List.of();
         }
 
         int atmStrike = (int) (Math.round(currentSpot / STRIKE_DIFFERENCE) * STRIKE_DIFFERENCE);
+        int lowerBound = atmStrike - (WINDOW_SIZE * STRIKE_DIFFERENCE);
+        int upperBound = atmStrike + (WINDOW_SIZE * STRIKE_DIFFERENCE);
 
-        return optionState.values().stream()
-                .map(event -> {
-                    InstrumentMaster.InstrumentDefinition inst = instrumentMaster.getInstrument(event.getSymbol())
-                            .orElse(null);
-                    if (inst == null)
-                        return null;
-
-                    int strike = (int) inst.getStrikePrice();
-                    int lowerBound = atmStrike - (WINDOW_SIZE * STRIKE_DIFFERENCE);
-                    int upperBound = atmStrike + (WINDOW_SIZE * STRIKE_DIFFERENCE);
-
-                    if (strike >= lowerBound && strike <= upperBound) {
-                        double currentOi = event.getOi();
-                        double baseOi = sessionInitialOi.getOrDefault(event.getSymbol(), currentOi);
-                        double oiChangePercent = (baseOi == 0) ? 0 : ((currentOi - baseOi) / baseOi) * 100;
-
-                        return new OptionChainDto(
-                                strike,
-                                inst.getOptionType(),
-                                event.getLtp(),
-                                (long) currentOi,
-                                oiChangePercent,
-                                "NEUTRAL");
-                    }
-                    return null;
-                })
-                .filter(Objects::nonNull)
-                .sorted(Comparator.comparingInt(OptionChainDto::getStrike))
-                .collect(Collectors.toList());
+        List<OptionChainDto> window = new ArrayList<>();
+        for (OptionQuote quote : optionsById) {
+            if (quote == null || quote == NOT_AN_OPTION || !quote.hasData())
+                continue;
+            if (quote.strike >= lowerBound && quote.strike <= upperBound) {
+                double currentOi = quote.oi;
+                double baseOi = quote.sessionInitialOi;
+                double oiChangePercent = (baseOi == 0) ? 0 : ((currentOi - baseOi) / baseOi) * 100;
+
+                window.add(new OptionChainDto(
+                        quote.strike,
+                        quote.optionType,
+                        quote.ltp,
+                        (long) currentOi,
+                        oiChangePercent,
+                        "NEUTRAL"));
+            }
+        }
+        window.sort(Comparator.comparingInt(OptionChainDto::getStrike));
+        return window;
     }
 
     public double getPcr() {
         double callOi = 0;
         double putOi = 0;
-        for (MarketEvent event : optionState.values()) {
-            InstrumentMaster.InstrumentDefinition inst = instrumentMaster.getInstrument(event.getSymbol()).orElse(null);
-            if (inst == null)
+        for (OptionQuote quote : optionsById) {
+            if (quote == null || quote == NOT_AN_OPTION)
                 continue;
-            if ("CE".equalsIgnoreCase(inst.getOptionType())) {
-                callOi += event.getOi();
-            } else if ("PE".equalsIgnoreCase(inst.getOptionType())) {
-                putOi += event.getOi();
+            if ("CE".equalsIgnoreCase(quote.optionType)) {
+                callOi += quote.oi;
+            } else if ("PE".equalsIgnoreCase(quote.optionType)) {
+                putOi += quote.oi;
             }
         }
         return (callOi == 0.0) ? 0 : putOi / callOi;
     }
+
+    private static class OptionQuote {
+        final int strike;
+        final String optionType;
+        volatile double ltp;
+        volatile double oi;
+        volatile double sessionInitialOi = Double.NaN;
+
+        OptionQuote(int strike, String optionType) {
+            this.strike = strike;
+            this.optionType = optionType;
+        }
+
+        void update(double ltp, double oi) {
+            // Initialize session start OI if not already present
+            if (Double.isNaN(sessionInitialOi)) {
+                sessionInitialOi = oi;
+            }
+            this.ltp = ltp;
+            this.oi = oi;
+        }
+
+        boolean hasData() {
+            return !Double.isNaN(sessionInitialOi);
+        }
+    }
 }
@@ -0,0 +1,133 @@
+package com.trading.hf;
+
+import java.util.Arrays;
+
+/**
+ * Per-instrument order books built from the MarketLevel depth of full / full_d30 feeds.
+ * Books are flat primitive arrays indexed by instrument id and are overwritten in place by
+ * each depth update, with spread, microprice and depth-weighted imbalance derived in the same
+ * O(levels) pass. Nothing is allocated after an instrument's first update.
+ *
+ * A book is written only by the decoder thread that owns its instrument (an instrument is
+ * always on one connection); readers on other threads get a best-effort view.
+ */
+public class OrderBookEngine {
+
+    private final int imbalanceLevels;
+    private final double[] levelWeights;
+    private volatile OrderBook[] books;
+
+    public OrderBookEngine(int initialCapacity) {
+        this.imbalanceLevels = (int) Math.min(RawFeedEvent.MAX_DEPTH_LEVELS,
+                Math.max(1, ConfigLoader.getLongProperty("orderbook.imbalance.levels", 5)));
+        // Level i counts 1/(i+1): the touch dominates, deeper levels still lean the imbalance
+        this.levelWeights = new double[imbalanceLevels];
+        for (int i = 0; i < imbalanceLevels; i++) {
+            levelWeights[i] = 1.0 / (i + 1);
+        }
+        this.books = new OrderBook[initialCapacity];
+    }
+
+    /** Book to overwrite for a depth update; call {@link OrderBook#setLevel} per level, then {@link #finish}. */
+    public OrderBook begin(int instrumentId) {
+        OrderBook[] current = books;
+        OrderBook book = instrumentId < current.length ? current[instrumentId] : null;
+        if (book == null) {
+            book = create(instrumentId);
+        }
+        book.levels = 0;
+        return book;
+    }
+
+    /** Derives spread, microprice and imbalance for the levels just written. */
+    public void finish(OrderBook book) {
+        book.updates++;
+        if (book.levels == 0) {
+            book.spread = 0;
+            book.microprice = 0;
+            book.imbalance = 0;
+            return;
+        }
+        double bid = book.bidPrices[0];
+        double ask = book.askPrices[0];
+        long bidQty = book.bidQuantities[0];
+        long askQty = book.askQuantities[0];
+        book.spread = (bid > 0 && ask > 0) ? ask - bid : 0;
+        book.microprice = (bidQty + askQty > 0 && bid > 0 && ask > 0)
+                ? (bid * askQty + ask * bidQty) / (bidQty + askQty)
+                : 0;
+
+        double weightedBid = 0;
+        double weightedAsk = 0;
+        int n = Math.min(imbalanceLevels, book.levels);
+        for (int i = 0; i < n; i++) {
+            weightedBid += levelWeights[i] * book.bidQuantities[i];
+            weightedAsk += levelWeights[i] * book.askQuantities[i];
+        }
+        double total = weightedBid + weightedAsk;
+        book.imbalance = total > 0 ? (weightedBid - weightedAsk) / total : 0;
+    }
+
+    public OrderBook getBook(int instrumentId) {
+        OrderBook[] current = books;
+        return (instrumentId >= 0 && instrumentId < current.length) ? current[instrumentId] : null;
+    }
+
+    public int getImbalanceLevels() {
+        return imbalanceLevels;
+    }
+
+    // First update of an instrument; serialised with growth so no decoder's book is lost in a copy
+    private synchronized OrderBook create(int instrumentId) {
+        OrderBook[] current = books;
+        if (instrumentId >= current.length) {
+            current = Arrays.copyOf(current, Math.max(instrumentId + 1, current.length * 2));
+            books = current;
+        }
+        if (current[instrumentId] == null) {
+            current[instrumentId] = new OrderBook(instrumentId);
+        }
+        return current[instrumentId];
+    }
+
+    public static final class OrderBook {
+        private final int instrumentId;
+        private final double[] bidPrices = new double[RawFeedEvent.MAX_DEPTH_LEVELS];
+        private final long[] bidQuantities = new long[RawFeedEvent.MAX_DEPTH_LEVELS];
+        private final double[] askPrices = new double[RawFeedEvent.MAX_DEPTH_LEVELS];
+        private final long[] askQuantities = new long[RawFeedEvent.MAX_DEPTH_LEVELS];
+        private int levels;
+        private long updates;
+        private double spread;
+        private double microprice;
+        private double imbalance;
+
+        OrderBook(int instrumentId) {
+            this.instrumentId = instrumentId;
+        }
+
+        /** Writes the next level; levels past the array capacity are dropped. */
+        public void setLevel(double bidPrice, long bidQuantity, double askPrice, long askQuantity) {
+            if (levels == bidPrices.length) {
+                return;
+            }
+            bidPrices[levels] = bidPrice;
+            bidQuantities[levels] = bidQuantity;
+            askPrices[levels] = askPrice;
+            askQuantities[levels] = askQuantity;
+            levels++;
+        }
+
+        public int getInstrumentId() { return instrumentId; }
+        public int getLevels() { return levels; }
+        public long getUpdates() { return updates; }
+        public double getBidPrice(int level) { return bidPrices[level]; }
+        public long getBidQuantity(int level) { return bidQuantities[level]; }
+        public double getAskPrice(int level) { return askPrices[level]; }
+        public long getAskQuantity(int level) { return askQuantities[level]; }
+        public double getSpread() { return spread; }
+        public double getMicroprice() { return microprice; }
+        /** Depth-weighted (bid - ask) / (bid + ask) over the configured levels, in [-1, 1]. */
+        public double getImbalance() { return imbalance; }
+    }
+}
@@ -0,0 +1,58 @@
+package com.trading.hf;
+
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.Sequence;
+
+/**
+ * One partition of a market handler that is spread over several consumers of the same stage.
+ * Each partition only passes on the instruments with instrumentId % partitions == partition,
+ * so every instrument is still handled in order by a single thread. Events without an id go
+ * to partition 0. endOfBatch only reaches a partition when the batch ends on one of its
+ * instruments, so handlers that flush on it are not candidates for partitioning.
+ */
+public class PartitionedEventHandler implements EventHandler<MarketEvent> {
+
+    private final int partition;
+    private final int partitions;
+    private final EventHandler<MarketEvent> delegate;
+
+    public PartitionedEventHandler(int partition, int partitions, EventHandler<MarketEvent> delegate) {
+        this.partition = partition;
+        this.partitions = partitions;
+        this.delegate = delegate;
+    }
+
+    public static int partitionOf(int instrumentId, int partitions) {
+        return instrumentId < 0 ? 0 : instrumentId % partitions;
+    }
+
+    @Override
+    public void onEvent(MarketEvent event, long sequence, boolean endOfBatch) throws Exception {
+        if (partitionOf(event.getInstrumentId(), partitions) == partition) {
+            delegate.onEvent(event, sequence, endOfBatch);
+        }
+    }
+
+    @Override
+    public void onStart() {
+        delegate.onStart();
+    }
+
+    @Override
+    public void onShutdown() {
+        delegate.onShutdown();
+    }
+
+    @Override
+    public void onTimeout(long sequence) throws Exception {
+        delegate.onTimeout(sequence);
+    }
+
+    @Override
+    public void setSequenceCallback(Sequence sequenceCallback) {
+        delegate.setSequenceCallback(sequenceCallback);
+    }
+
+    public int getPartition() { return partition; }
+    public int getPartitions() { return partitions; }
+}
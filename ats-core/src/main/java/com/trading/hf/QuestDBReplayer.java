@@ -12,11 +12,14 @@ import java.util.Properties;
 
 public class QuestDBReplayer implements IDataReplayer {
     private static final Logger logger = LoggerFactory.getLogger(QuestDBReplayer.class);
-    private final RingBuffer<MarketEvent> ringBuffer;
+    private final MarketEventPublisher publisher;
+    private final MarketEvent scratch = new HeapMarketEvent();
+    private final InstrumentMaster instrumentMaster;
     private final long delayMs;
 
-    public QuestDBReplayer(RingBuffer<MarketEvent> ringBuffer) {
-        this.ringBuffer = ringBuffer;
+    public QuestDBReplayer(RingBuffer<MarketEvent> ringBuffer, InstrumentMaster instrumentMaster) {
+        this.publisher = new MarketEventPublisher(ringBuffer, instrumentMaster);
+        this.instrumentMaster = instrumentMaster;
         this.delayMs = Long.parseLong(ConfigLoader.getProperty("simulation.event.delay.ms", "10"));
     }
 
@@ -66,7 +69,9 @@ public class QuestDBReplayer implements IDataReplayer {
                         Thread.sleep(delayMs);
                     }
                 }
-                logger.info("Replay finished. Total ticks: {}", count);
+                publisher.flush();
+                logger.info("Replay finished. Total ticks: {} (dropped {}, conflated {})", count,
+                        publisher.getDropped(), publisher.getConflated());
             }
         } catch (Exception e) {
             logger.error("Error during QuestDB replay", e);
@@ -77,27 +82,26 @@ public class QuestDBReplayer implements IDataReplayer {
     private void publishMarketUpdate(String symbol, double ltp, long ltq, long ltt, double cp, 
                                    double tbq, double tsq, long vtt, double oi, double iv, double atp,
                                    double bestBid, double bestAsk) {
-        long sequence = ringBuffer.next();
-        try {
-            MarketEvent event = ringBuffer.get(sequence);
-            event.setSymbol(symbol);
-            event.setLtp(ltp);
-            event.setLtt(ltt);
-            event.setLtq(ltq);
-            event.setCp(cp);
-            event.setTbq(tbq);
-            event.setTsq(tsq);
-            event.setVtt(vtt);
-            event.setOi(oi);
-            event.setIv(iv);
-            event.setAtp(atp);
-            event.setTs(ltt);
-            // In replay, we might not have stored best bid/ask in the same granular tick table
-            // Defaulting to LTP if missing, but typically 'ticks' table is for time-series analysis.
-            event.setBestBidPrice(bestBid > 0 ? bestBid : ltp);
-            event.setBestAskPrice(bestAsk > 0 ? bestAsk : ltp);
-        } finally {
-            ringBuffer.publish(sequence);
-        }
+        int instrumentId = instrumentMaster.getInstrumentId(symbol);
+        MarketEvent event = scratch;
+        event.clear();
+        event.setSymbol(symbol);
+        event.setInstrumentId(instrumentId);
+        event.setLtp(ltp);
+        event.setLtt(ltt);
+        event.setLtq(ltq);
+        event.setCp(cp);
+        event.setTbq(tbq);
+        event.setTsq(tsq);
+        event.setVtt(vtt);
+        event.setOi(oi);
+        event.setIv(iv);
+        event.setAtp(atp);
+        event.setTs(ltt);
+        // In replay, we might not have stored best bid/ask in the same granular tick table
+        // Defaulting to LTP if missing, but typically 'ticks' table is for time-series analysis.
+        event.setBestBidPrice(bestBid > 0 ? bestBid : ltp);
+        event.setBestAskPrice(bestAsk > 0 ? bestAsk : ltp);
+        publisher.publish(event);
     }
 }
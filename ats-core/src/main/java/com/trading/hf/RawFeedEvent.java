@@ -1,46 +1,58 @@
 package com.trading.hf;
 
-import java.util.List;
-
 public class RawFeedEvent {
 
+    /** Deepest book Upstox sends (full_d30). */
+    public static final int MAX_DEPTH_LEVELS = 30;
+
     private String instrumentKey;
     private long timestamp;
     private double ltp;
     private long ltq;
-    private List<BookEntry> bids;
-    private List<BookEntry> asks;
     private double bestBid;
     private double bestAsk;
 
+    // Depth, filled in place; only the first levelCount entries are valid
+    private int levelCount;
+    private final double[] bidPrices = new double[MAX_DEPTH_LEVELS];
+    private final long[] bidQuantities = new long[MAX_DEPTH_LEVELS];
+    private final long[] bidOrders = new long[MAX_DEPTH_LEVELS];
+    private final double[] askPrices = new double[MAX_DEPTH_LEVELS];
+    private final long[] askQuantities = new long[MAX_DEPTH_LEVELS];
+    private final long[] askOrders = new long[MAX_DEPTH_LEVELS];
+
     public RawFeedEvent() {
         // Default constructor for Disruptor
     }
 
-    public static class BookEntry {
-        private final double price;
-        private final long quantity;
-        private final long orders;
-
-        public BookEntry(double price, long quantity, long orders) {
-            this.price = price;
-            this.quantity = quantity;
-            this.orders = orders;
-        }
-
-        public double getPrice() {
-            return price;
-        }
-
-        public long getQuantity() {
-            return quantity;
+    /** Sets one book level; returns false once all MAX_DEPTH_LEVELS are used. */
+    public boolean addLevel(double bidPrice, long bidQuantity, long bidOrderCount,
+            double askPrice, long askQuantity, long askOrderCount) {
+        if (levelCount == MAX_DEPTH_LEVELS) {
+            return false;
         }
+        int i = levelCount++;
+        bidPrices[i] = bidPrice;
+        bidQuantities[i] = bidQuantity;
+        bidOrders[i] = bidOrderCount;
+        askPrices[i] = askPrice;
+        askQuantities[i] = askQuantity;
+        askOrders[i] = askOrderCount;
+        return true;
+    }
 
-        public long getOrders() {
-            return orders;
-        }
+    public void clearDepth() {
+        levelCount = 0;
     }
 
+    public int getLevelCount() { return levelCount; }
+    public double getBidPrice(int level) { return bidPrices[level]; }
+    public long getBidQuantity(int level) { return bidQuantities[level]; }
+    public long getBidOrders(int level) { return bidOrders[level]; }
+    public double getAskPrice(int level) { return askPrices[level]; }
+    public long getAskQuantity(int level) { return askQuantities[level]; }
+    public long getAskOrders(int level) { return askOrders[level]; }
+
     // Getters and Setters
     public String getInstrumentKey() {
         return instrumentKey;
@@ -74,22 +86,6 @@ public class RawFeedEvent {
         this.ltq = ltq;
     }
 
-    public List<BookEntry> getBids() {
-        return bids;
-    }
-
-    public void setBids(List<BookEntry> bids) {
-        this.bids = bids;
-    }
-
-    public List<BookEntry> getAsks() {
-        return asks;
-    }
-
-    public void setAsks(List<BookEntry> asks) {
-        this.asks = asks;
-    }
-
     public double getBestBid() {
         return bestBid;
     }
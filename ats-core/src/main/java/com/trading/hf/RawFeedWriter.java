@@ -1,6 +1,5 @@
 package com.trading.hf;
 
-import com.google.gson.Gson;
 import com.lmax.disruptor.EventHandler;
 import io.questdb.client.Sender;
 import java.time.Instant;
@@ -8,13 +7,16 @@ import java.time.Instant;
 public class RawFeedWriter implements EventHandler<RawFeedEvent>, AutoCloseable {
 
     private final Sender sender;
-    private final Gson gson = new Gson();
+    private final boolean persistDepth;
+    // Reused for the depth JSON columns
+    private final StringBuilder json = new StringBuilder(4096);
     private long lastFlushTime = System.currentTimeMillis();
     private long eventCount = 0;
     private final boolean persistenceEnabled;
 
     public RawFeedWriter() {
         this.persistenceEnabled = ConfigLoader.getBooleanProperty("questdb.enabled", false);
+        this.persistDepth = ConfigLoader.getBooleanProperty("database.persistence.depth", false);
         if (persistenceEnabled) {
             this.sender = Sender.builder(Sender.Transport.TCP)
                     .address("localhost:9009")
@@ -30,8 +32,6 @@ public class RawFeedWriter implements EventHandler<RawFeedEvent>, AutoCloseable
             return;
         }
 
-        boolean persistDepth = ConfigLoader.getBooleanProperty("database.persistence.depth", false);
-        
         sender.table("raw_market_feed")
                 .symbol("instrumentKey", event.getInstrumentKey())
                 .doubleColumn("ltp", event.getLtp())
@@ -40,10 +40,8 @@ public class RawFeedWriter implements EventHandler<RawFeedEvent>, AutoCloseable
                 .doubleColumn("best_ask", event.getBestAsk());
         
         if (persistDepth) {
-            String bidsJson = gson.toJson(event.getBids());
-            String asksJson = gson.toJson(event.getAsks());
-            sender.stringColumn("bids", bidsJson)
-                  .stringColumn("asks", asksJson);
+            sender.stringColumn("bids", depthJson(event, true))
+                  .stringColumn("asks", depthJson(event, false));
         }
 
         sender.at(Instant.ofEpochMilli(event.getTimestamp()));
@@ -58,6 +56,22 @@ public class RawFeedWriter implements EventHandler<RawFeedEvent>, AutoCloseable
         }
     }
 
+    // Same [{"price":..,"quantity":..,"orders":..}] layout the column has always held
+    private CharSequence depthJson(RawFeedEvent event, boolean bids) {
+        json.setLength(0);
+        json.append('[');
+        for (int i = 0; i < event.getLevelCount(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"price\":").append(bids ? event.getBidPrice(i) : event.getAskPrice(i))
+                .append(",\"quantity\":").append(bids ? event.getBidQuantity(i) : event.getAskQuantity(i))
+                .append(",\"orders\":").append(bids ? event.getBidOrders(i) : event.getAskOrders(i))
+                .append('}');
+        }
+        return json.append(']');
+    }
+
     @Override
     public void close() {
         if (sender != null) {
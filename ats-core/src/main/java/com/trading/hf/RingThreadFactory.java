@@ -0,0 +1,143 @@
+package com.trading.hf;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Consumer threads for one ring, chosen by disruptor.threads.&lt;ring&gt; (falling back to
+ * disruptor.threads): "virtual", "platform", or "pinned". A pinned thread is a platform thread
+ * that binds itself to a CPU from disruptor.threads.cpus.&lt;ring&gt; (e.g. "3" or "2-3,6") as the
+ * first thing it runs. Each new consumer thread of the ring takes the next CPU in the set (also
+ * across factories for the same ring, e.g. one frame ring per connection), so a busy-spinning
+ * handler can own an isolated core.
+ *
+ * Pinning is done without native code: the thread finds its kernel tid through
+ * /proc/thread-self and runs taskset on it. If that fails, the thread keeps running unpinned
+ * and a warning is logged.
+ */
+public class RingThreadFactory implements ThreadFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(RingThreadFactory.class);
+
+    public enum Model { VIRTUAL, PLATFORM, PINNED }
+
+    // Next CPU index per ring name, shared by every factory of that ring
+    private static final Map<String, AtomicInteger> cpuCursors = new ConcurrentHashMap<>();
+
+    private final String ring;
+    private final String threadName;
+    private final Model model;
+    private final int[] cpus;
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private final ThreadFactory virtualFactory;
+
+    public RingThreadFactory(String ring, String threadName, Model model, int[] cpus) {
+        this.ring = ring;
+        this.threadName = threadName;
+        this.model = model;
+        this.cpus = cpus;
+        this.virtualFactory = Thread.ofVirtual().name(threadName + "-", 0).factory();
+        if (model == Model.PINNED && cpus.length == 0) {
+            logger.warn("Ring '{}' is set to pinned but disruptor.threads.cpus.{} is empty; threads will not be pinned",
+                    ring, ring);
+        }
+    }
+
+    /** Factory for a ring from config; defaultModel applies when neither the ring nor the global key is set. */
+    public static RingThreadFactory forRing(String ring, Model defaultModel) {
+        return forRing(ring, ring, defaultModel);
+    }
+
+    public static RingThreadFactory forRing(String ring, String threadName, Model defaultModel) {
+        String global = ConfigLoader.getProperty("disruptor.threads", defaultModel.name());
+        String value = ConfigLoader.getProperty("disruptor.threads." + ring, global).trim();
+        Model model;
+        try {
+            model = Model.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unknown thread model '{}' for ring '{}', using {}", value, ring, defaultModel);
+            model = defaultModel;
+        }
+        int[] cpus = parseCpuList(ConfigLoader.getProperty("disruptor.threads.cpus." + ring, ""));
+        return new RingThreadFactory(ring, threadName, model, cpus);
+    }
+
+    @Override
+    public Thread newThread(Runnable task) {
+        if (model == Model.VIRTUAL) {
+            return virtualFactory.newThread(task);
+        }
+        int index = threadCount.getAndIncrement();
+        String name = index == 0 ? threadName : threadName + "-" + index;
+        Runnable body = task;
+        if (model == Model.PINNED && cpus.length > 0) {
+            int next = cpuCursors.computeIfAbsent(ring, r -> new AtomicInteger()).getAndIncrement();
+            int cpu = cpus[next % cpus.length];
+            body = () -> {
+                pinCurrentThread(cpu);
+                task.run();
+            };
+        }
+        Thread thread = new Thread(body, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    public String getRing() { return ring; }
+    public Model getModel() { return model; }
+
+    private void pinCurrentThread(int cpu) {
+        String name = Thread.currentThread().getName();
+        try {
+            // "/proc/thread-self" links to "<pid>/task/<tid>" for the calling thread
+            String tid = Files.readSymbolicLink(Path.of("/proc/thread-self")).getFileName().toString();
+            Process process = new ProcessBuilder("taskset", "-p", "-c", Integer.toString(cpu), tid)
+                    .redirectErrorStream(true)
+                    .start();
+            String output = new String(process.getInputStream().readAllBytes()).trim();
+            if (!process.waitFor(5, TimeUnit.SECONDS) || process.exitValue() != 0) {
+                logger.warn("Could not pin {} to CPU {}: {}", name, cpu, output);
+                return;
+            }
+            logger.info("Pinned {} (tid {}) to CPU {}", name, tid, cpu);
+        } catch (Exception e) {
+            logger.warn("Could not pin {} to CPU {}: {}", name, cpu, e.toString());
+        }
+    }
+
+    /** Parses a taskset-style CPU list such as "3", "2,4" or "2-5,8". */
+    static int[] parseCpuList(String list) {
+        List<Integer> result = new ArrayList<>();
+        for (String part : list.split(",")) {
+            String item = part.trim();
+            if (item.isEmpty()) {
+                continue;
+            }
+            try {
+                int dash = item.indexOf('-');
+                if (dash < 0) {
+                    result.add(Integer.parseInt(item));
+                } else {
+                    int from = Integer.parseInt(item.substring(0, dash).trim());
+                    int to = Integer.parseInt(item.substring(dash + 1).trim());
+                    for (int cpu = from; cpu <= to; cpu++) {
+                        result.add(cpu);
+                    }
+                }
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid CPU list entry '{}'", item);
+            }
+        }
+        return result.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,158 @@
+package com.trading.hf;
+
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+
+/**
+ * Wraps a non-critical ring handler so {@link HandlerWatchdog} can shed its load. While
+ * degraded the handler skips to the latest event, so a handler that has fallen behind catches up
+ * in a few batches instead of holding back the ring. Given the ring and an instrument key, it
+ * looks ahead over each batch and passes on the last event of every instrument in it (events with
+ * a negative key only as the batch's last event); without them only the last event of the batch
+ * (endOfBatch) reaches the delegate, and the events of every other instrument in the batch are lost.
+ */
+public class SheddableEventHandler<T> implements EventHandler<T>, HandlerWatchdog.Probe {
+
+    private final String name;
+    private final EventHandler<T> delegate;
+    private final RingBuffer<T> ring;
+    private final ToIntFunction<T> instrumentKey;
+    private volatile boolean degraded;
+    private volatile Sequence sequence;
+    private final AtomicLong inServiceSince = new AtomicLong();
+
+    // Handler thread only
+    private volatile long skipped;
+    private long batchSize;
+    private boolean batchStarted;
+    private long batchFirst;
+    private long batchEnd = -1;
+    private long markedEnd = -1;
+    private int batchStamp;
+    // Per instrument key: stamp of the batch that set latestSequences, and the key's last sequence in it
+    private int[] latestStamps = new int[0];
+    private long[] latestSequences = new long[0];
+    // Watchdog thread only
+    private volatile long degradations;
+
+    public SheddableEventHandler(String name, EventHandler<T> delegate) {
+        this(name, delegate, null, null);
+    }
+
+    /** Sheds per instrument: ring is the ring the handler consumes, instrumentKey a non-negative id per instrument. */
+    public SheddableEventHandler(String name, EventHandler<T> delegate, RingBuffer<T> ring, ToIntFunction<T> instrumentKey) {
+        this.name = name;
+        this.delegate = delegate;
+        this.ring = ring;
+        this.instrumentKey = instrumentKey;
+    }
+
+    @Override
+    public void onEvent(T event, long sequence, boolean endOfBatch) throws Exception {
+        if (batchStarted) {
+            batchStarted = false;
+            batchFirst = sequence;
+            batchEnd = sequence + Math.max(1, batchSize) - 1;
+        }
+        if (degraded && !endOfBatch && !isLatestOfInstrument(event, sequence)) {
+            skipped++;
+            return;
+        }
+        inServiceSince.lazySet(System.nanoTime());
+        try {
+            delegate.onEvent(event, sequence, endOfBatch);
+        } finally {
+            inServiceSince.lazySet(0);
+        }
+    }
+
+    @Override
+    public void onBatchStart(long batchSize, long queueDepth) {
+        this.batchSize = batchSize;
+        this.batchStarted = true;
+        delegate.onBatchStart(batchSize, queueDepth);
+    }
+
+    private boolean isLatestOfInstrument(T event, long sequence) {
+        if (ring == null) {
+            return false;
+        }
+        if (markedEnd != batchEnd) {
+            // The batch's events are all published and held until the processor moves past them
+            markLatest(batchFirst, batchEnd);
+            markedEnd = batchEnd;
+        }
+        int key = instrumentKey.applyAsInt(event);
+        return key >= 0 && key < latestStamps.length && latestStamps[key] == batchStamp
+                && latestSequences[key] == sequence;
+    }
+
+    private void markLatest(long first, long last) {
+        if (++batchStamp == 0) {
+            Arrays.fill(latestStamps, 0);
+            batchStamp = 1;
+        }
+        for (long s = last; s >= first; s--) {
+            int key = instrumentKey.applyAsInt(ring.get(s));
+            if (key < 0) {
+                continue;
+            }
+            if (key >= latestStamps.length) {
+                int capacity = Math.max(key + 1, latestStamps.length * 2);
+                latestStamps = Arrays.copyOf(latestStamps, capacity);
+                latestSequences = Arrays.copyOf(latestSequences, capacity);
+            }
+            if (latestStamps[key] != batchStamp) {
+                latestStamps[key] = batchStamp;
+                latestSequences[key] = s;
+            }
+        }
+    }
+
+    @Override
+    public void onStart() {
+        delegate.onStart();
+    }
+
+    @Override
+    public void onShutdown() {
+        delegate.onShutdown();
+    }
+
+    @Override
+    public void onTimeout(long sequence) throws Exception {
+        delegate.onTimeout(sequence);
+    }
+
+    @Override
+    public void setSequenceCallback(Sequence sequenceCallback) {
+        this.sequence = sequenceCallback;
+        delegate.setSequenceCallback(sequenceCallback);
+    }
+
+    void degrade() {
+        degraded = true;
+        degradations++;
+    }
+
+    void recover() {
+        degraded = false;
+    }
+
+    public String getName() { return name; }
+    public boolean isDegraded() { return degraded; }
+    /** Events not passed on while degraded. */
+    public long getSkipped() { return skipped; }
+    public long getDegradations() { return degradations; }
+
+    @Override
+    public Sequence getSequence() { return sequence; }
+
+    @Override
+    public long getInServiceSince() { return inServiceSince.get(); }
+}
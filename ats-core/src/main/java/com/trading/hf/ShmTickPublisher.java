@@ -0,0 +1,169 @@
+package com.trading.hf;
+
+import com.lmax.disruptor.EventHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Market handler that writes every MarketEvent into a memory-mapped ring file, so other JVMs on
+ * the host can follow the tick stream with {@link ShmTickReader} instead of opening their own
+ * broker connection.
+ *
+ * The writer never looks at its readers: it overwrites the ring in sequence order, and each slot
+ * carries a seqlock word (-1 while the slot is being written, then the slot's sequence) from which
+ * a reader tells a complete tick from a torn or lapped one. A slow reader loses ticks (and counts
+ * them); it can never hold up the trading process.
+ *
+ * File layout, little-endian:
+ * <pre>
+ * header line 0   int magic, int version, int slot size, int slot count, long epoch
+ * header line 1   long cursor (highest sequence written, -1 before the first tick)
+ * slot            long seqlock, short symbol length, symbol bytes (US-ASCII), then from
+ *                 {@link #EVENT_OFFSET} the {@link OffHeapMarketEvent} slot layout
+ * </pre>
+ */
+public class ShmTickPublisher implements EventHandler<MarketEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShmTickPublisher.class);
+
+    public static final int MAGIC = 0x4D545348; // "MTSH"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 128;
+    static final int SLOT_SIZE_OFFSET = 8;
+    static final int SLOT_COUNT_OFFSET = 12;
+    static final int EPOCH_OFFSET = 16;
+    static final int CURSOR_OFFSET = 64;
+
+    public static final int SYMBOL_LENGTH = 8;
+    public static final int SYMBOL = 10;
+    public static final int MAX_SYMBOL_BYTES = 54;
+    public static final int EVENT_OFFSET = 64;
+    public static final int SLOT_SIZE = EVENT_OFFSET + OffHeapMarketEvent.SLOT_SIZE;
+
+    static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final int mask;
+    private final OffHeapMarketEvent[] slots;
+    private final long epoch;
+
+    // Handler thread only
+    private long next;
+    private byte[][] symbolBytes = new byte[1024][];
+
+    /** Maps (creating if needed) a ring of slotCount slots, a power of two, and starts a new epoch. */
+    public ShmTickPublisher(Path file, int slotCount) {
+        if (slotCount <= 0 || Integer.bitCount(slotCount) != 1) {
+            throw new IllegalArgumentException("Shared-memory tick ring size must be a power of two: " + slotCount);
+        }
+        long size = HEADER_SIZE + (long) slotCount * SLOT_SIZE;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Shared-memory tick ring of " + slotCount + " slots exceeds 2 GB");
+        }
+        this.file = file;
+        this.mask = slotCount - 1;
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            // Not truncated: readers still mapping the file from a previous run would fault
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map shared-memory tick ring " + file, e);
+        }
+
+        // Invalidate the previous run's slots before announcing the new epoch
+        this.slots = new OffHeapMarketEvent[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            LONGS.setOpaque(buffer, slotOffset(i), -1L);
+            // Write-only flyweights: the symbol goes into the slot header, readers resolve it from there
+            slots[i] = new OffHeapMarketEvent(buffer, slotOffset(i) + EVENT_OFFSET, id -> null);
+        }
+        LONGS.setRelease(buffer, CURSOR_OFFSET, -1L);
+        this.epoch = System.currentTimeMillis();
+        buffer.putInt(4, VERSION);
+        buffer.putInt(SLOT_SIZE_OFFSET, SLOT_SIZE);
+        buffer.putInt(SLOT_COUNT_OFFSET, slotCount);
+        LONGS.setRelease(buffer, EPOCH_OFFSET, epoch);
+        buffer.putInt(0, MAGIC);
+        logger.info("Publishing ticks to shared-memory ring {} ({} slots, epoch {})", file, slotCount, epoch);
+    }
+
+    @Override
+    public void onEvent(MarketEvent event, long sequence, boolean endOfBatch) {
+        long s = next++;
+        int index = (int) (s & mask);
+        int offset = slotOffset(index);
+
+        LONGS.setOpaque(buffer, offset, -1L);
+        VarHandle.storeStoreFence();
+        byte[] symbol = symbolBytes(event.getInstrumentId(), event.getSymbol());
+        buffer.putShort(offset + SYMBOL_LENGTH, (short) symbol.length);
+        buffer.put(offset + SYMBOL, symbol);
+        OffHeapMarketEvent slot = slots[index];
+        slot.copyFrom(event);
+        slot.setPublishNanos(System.nanoTime());
+        LONGS.setRelease(buffer, offset, s);
+
+        if (endOfBatch) {
+            LONGS.setRelease(buffer, CURSOR_OFFSET, s);
+        }
+    }
+
+    @Override
+    public void onShutdown() {
+        if (next > 0) {
+            LONGS.setRelease(buffer, CURSOR_OFFSET, next - 1);
+        }
+        logger.info("Shared-memory tick ring {} closed after {} ticks", file, next);
+    }
+
+    private byte[] symbolBytes(int id, String symbol) {
+        if (symbol == null) {
+            return new byte[0];
+        }
+        if (id < 0) {
+            return encode(symbol);
+        }
+        if (id >= symbolBytes.length) {
+            symbolBytes = Arrays.copyOf(symbolBytes, Math.max(id + 1, symbolBytes.length * 2));
+        }
+        byte[] bytes = symbolBytes[id];
+        if (bytes == null) {
+            bytes = encode(symbol);
+            symbolBytes[id] = bytes;
+        }
+        return bytes;
+    }
+
+    private static byte[] encode(String symbol) {
+        byte[] bytes = symbol.getBytes(StandardCharsets.US_ASCII);
+        return bytes.length <= MAX_SYMBOL_BYTES ? bytes : Arrays.copyOf(bytes, MAX_SYMBOL_BYTES);
+    }
+
+    static int slotOffset(int index) {
+        return HEADER_SIZE + index * SLOT_SIZE;
+    }
+
+    public Path getFile() { return file; }
+    public long getEpoch() { return epoch; }
+    /** Ticks written so far. */
+    public long getPublished() { return next; }
+}
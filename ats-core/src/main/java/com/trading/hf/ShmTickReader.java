@@ -0,0 +1,153 @@
+package com.trading.hf;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Follows the tick stream of a {@link ShmTickPublisher} ring file from another JVM. The file is
+ * mapped read-only, so a reader cannot slow the writer down; a reader that falls more than the
+ * ring size behind is overrun, skips ahead and counts the lost ticks in {@link #getOverruns}.
+ * A restart of the writer (new epoch) is picked up and the reader follows the new stream.
+ *
+ * <pre>
+ * ShmTickReader reader = new ShmTickReader(Path.of("shm/ticks.ring"));
+ * while (running) {
+ *     MarketEvent tick = reader.poll();
+ *     if (tick != null) { ... } else { Thread.onSpinWait(); }
+ * }
+ * </pre>
+ *
+ * Not thread-safe: one reader per consuming thread.
+ */
+public class ShmTickReader {
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final int slotCount;
+    private final int mask;
+    private final ByteBuffer local;
+    private final OffHeapMarketEvent event;
+    private final byte[] symbolScratch = new byte[ShmTickPublisher.MAX_SYMBOL_BYTES];
+    private String[] symbols = new String[1024];
+
+    private long epoch;
+    private long next;
+    private long received;
+    private long overruns;
+
+    /** Maps the ring file and starts at the next tick the writer publishes. */
+    public ShmTickReader(Path file) {
+        this.file = file;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map shared-memory tick ring " + file, e);
+        }
+        if (buffer.capacity() < ShmTickPublisher.HEADER_SIZE || buffer.getInt(0) != ShmTickPublisher.MAGIC) {
+            throw new IllegalStateException("Not a shared-memory tick ring (or not yet initialised): " + file);
+        }
+        if (buffer.getInt(4) != ShmTickPublisher.VERSION
+                || buffer.getInt(ShmTickPublisher.SLOT_SIZE_OFFSET) != ShmTickPublisher.SLOT_SIZE) {
+            throw new IllegalStateException("Unsupported shared-memory tick ring version " + buffer.getInt(4) + ": " + file);
+        }
+        this.slotCount = buffer.getInt(ShmTickPublisher.SLOT_COUNT_OFFSET);
+        this.mask = slotCount - 1;
+        this.local = ByteBuffer.allocateDirect(ShmTickPublisher.SLOT_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.event = new OffHeapMarketEvent(local, ShmTickPublisher.EVENT_OFFSET, this::symbolOf);
+        this.epoch = (long) ShmTickPublisher.LONGS.getAcquire(buffer, ShmTickPublisher.EPOCH_OFFSET);
+        this.next = cursor() + 1;
+    }
+
+    /**
+     * The next tick, or null when the reader has caught up. The returned event is reused and is
+     * only valid until the next call.
+     */
+    public MarketEvent poll() {
+        while (true) {
+            // A restarted writer resets every slot: versions of the old stream mean nothing to the new one
+            if (restarted()) {
+                continue;
+            }
+            int offset = ShmTickPublisher.slotOffset((int) (next & mask));
+            long version = (long) ShmTickPublisher.LONGS.getAcquire(buffer, offset);
+            if (version == next) {
+                local.put(0, buffer, offset, ShmTickPublisher.SLOT_SIZE);
+                VarHandle.loadLoadFence();
+                if ((long) ShmTickPublisher.LONGS.getOpaque(buffer, offset) == next) {
+                    next++;
+                    received++;
+                    resolveSymbol();
+                    return event;
+                }
+                // Overwritten while copying: the writer has lapped us, or restarted
+                if (!restarted()) {
+                    skipAhead(next + slotCount);
+                }
+            } else if (version > next) {
+                skipAhead(version);
+            } else {
+                // Not written yet (or being written)
+                return null;
+            }
+        }
+    }
+
+    /** Follows a new writer epoch from its next tick; false while the epoch is unchanged. */
+    private boolean restarted() {
+        long current = (long) ShmTickPublisher.LONGS.getAcquire(buffer, ShmTickPublisher.EPOCH_OFFSET);
+        if (current == epoch) {
+            return false;
+        }
+        epoch = current;
+        next = cursor() + 1;
+        Arrays.fill(symbols, null);
+        return true;
+    }
+
+    /** Jumps to half a ring behind the writer, counting the ticks that were lost. */
+    private void skipAhead(long seen) {
+        long head = Math.max(seen, cursor());
+        long resume = Math.max(next + 1, head - (slotCount >> 1));
+        overruns += resume - next;
+        next = resume;
+    }
+
+    // Caches the slot's symbol per instrument id; the event reads it back through symbolOf
+    private void resolveSymbol() {
+        int id = event.getInstrumentId();
+        if (id < 0 || (id < symbols.length && symbols[id] != null)) {
+            return;
+        }
+        int length = Math.min(local.getShort(ShmTickPublisher.SYMBOL_LENGTH), ShmTickPublisher.MAX_SYMBOL_BYTES);
+        local.get(ShmTickPublisher.SYMBOL, symbolScratch, 0, Math.max(0, length));
+        if (id >= symbols.length) {
+            symbols = Arrays.copyOf(symbols, Math.max(id + 1, symbols.length * 2));
+        }
+        symbols[id] = length > 0 ? new String(symbolScratch, 0, length, StandardCharsets.US_ASCII) : null;
+    }
+
+    private String symbolOf(int id) {
+        return id < symbols.length ? symbols[id] : null;
+    }
+
+    private long cursor() {
+        return (long) ShmTickPublisher.LONGS.getAcquire(buffer, ShmTickPublisher.CURSOR_OFFSET);
+    }
+
+    public Path getFile() { return file; }
+    /** Writer epoch (start time in millis) of the stream being followed. */
+    public long getEpoch() { return epoch; }
+    public long getReceived() { return received; }
+    /** Ticks lost because the writer lapped this reader. */
+    public long getOverruns() { return overruns; }
+    /** Ticks published but not yet read. */
+    public long getBacklog() { return Math.max(0, cursor() + 1 - next); }
+}
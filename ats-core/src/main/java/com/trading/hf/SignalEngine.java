@@ -13,6 +13,8 @@ public class SignalEngine {
     private final AuctionProfileCalculator auctionProfileCalculator;
     private final Map<String, AuctionState> auctionStates = new ConcurrentHashMap<String, AuctionState>();
     private com.lmax.disruptor.RingBuffer<SignalEvent> signalRingBuffer;
+    private final LatencyHistogram signalLatency = LatencyTracker.histogram(LatencyTracker.RECEIVE_TO_SIGNAL + "auction");
+    private long currentReceiveNanos;
 
     public enum AuctionState {
         ROTATION,
@@ -30,7 +32,7 @@ public class SignalEngine {
         this.signalRingBuffer = signalRingBuffer;
     }
 
-    private void publishSignal(String symbol, String type, double price, AuctionProfileCalculator.MarketProfile profile, double delta) {
+    private void publishSignal(String symbol, String type, double price, AuctionProfileCalculator.ValueArea profile, double delta) {
         if (signalRingBuffer == null) return;
         
         long sequence = signalRingBuffer.next();
@@ -39,6 +41,7 @@ public class SignalEngine {
             event.set(symbol, type, price, profile.getVah(), profile.getVal(), profile.getPoc(), delta, System.currentTimeMillis());
         } finally {
             signalRingBuffer.publish(sequence);
+            LatencyTracker.recordSince(signalLatency, currentReceiveNanos);
         }
     }
 
@@ -48,7 +51,8 @@ public class SignalEngine {
 
     public void onVolumeBar(VolumeBar bar) {
         String symbol = bar.getSymbol();
-        AuctionProfileCalculator.MarketProfile profile = auctionProfileCalculator.getProfile(symbol);
+        currentReceiveNanos = bar.getLastReceiveNanos();
+        AuctionProfileCalculator.ValueArea profile = auctionProfileCalculator.getValueArea(symbol);
 
         if (profile == null) {
             logger.warn("[{}] Market profile is null, skipping signal generation.", symbol);
@@ -115,7 +119,7 @@ public class SignalEngine {
         detectInitiativeAndAbsorption(bar, profile, currentState);
     }
 
-    private void detectInitiativeAndAbsorption(VolumeBar bar, AuctionProfileCalculator.MarketProfile profile, AuctionState state) {
+    private void detectInitiativeAndAbsorption(VolumeBar bar, AuctionProfileCalculator.ValueArea profile, AuctionState state) {
         double close = bar.getClose();
         double delta = bar.getCumulativeVolumeDelta();
         double vah = profile.getVah();
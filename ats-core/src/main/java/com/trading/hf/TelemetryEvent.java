@@ -2,25 +2,45 @@ package com.trading.hf;
 
 import com.lmax.disruptor.EventFactory;
 
+/** One rolled-up metrics record of a ring handler for one telemetry interval. */
 public class TelemetryEvent {
     private String processorName;
+    private long events;
+    private long meanServiceNanos;
+    private long maxServiceNanos;
+    private long meanWaitNanos;
+    private long meanLag;
+    private long maxLag;
+    private long lag;
     private long remainingCapacity;
-    private long processingLagMs;
-    private long networkLagMs;
+    private long occupancy;
     private long timestamp;
 
-    public void set(String processorName, long remainingCapacity, long processingLagMs, long networkLagMs, long timestamp) {
+    public void set(String processorName, HandlerMetrics.Interval interval, long remainingCapacity, long occupancy,
+            long timestamp) {
         this.processorName = processorName;
+        this.events = interval.getEvents();
+        this.meanServiceNanos = interval.getMeanServiceNanos();
+        this.maxServiceNanos = interval.getMaxServiceNanos();
+        this.meanWaitNanos = interval.getMeanWaitNanos();
+        this.meanLag = interval.getMeanLag();
+        this.maxLag = interval.getMaxLag();
+        this.lag = interval.getLag();
         this.remainingCapacity = remainingCapacity;
-        this.processingLagMs = processingLagMs;
-        this.networkLagMs = networkLagMs;
+        this.occupancy = occupancy;
         this.timestamp = timestamp;
     }
 
     public String getProcessorName() { return processorName; }
+    public long getEvents() { return events; }
+    public long getMeanServiceNanos() { return meanServiceNanos; }
+    public long getMaxServiceNanos() { return maxServiceNanos; }
+    public long getMeanWaitNanos() { return meanWaitNanos; }
+    public long getMeanLag() { return meanLag; }
+    public long getMaxLag() { return maxLag; }
+    public long getLag() { return lag; }
     public long getRemainingCapacity() { return remainingCapacity; }
-    public long getProcessingLagMs() { return processingLagMs; }
-    public long getNetworkLagMs() { return networkLagMs; }
+    public long getOccupancy() { return occupancy; }
     public long getTimestamp() { return timestamp; }
 
     public static final EventFactory<TelemetryEvent> EVENT_FACTORY = TelemetryEvent::new;
@@ -17,9 +17,15 @@ public class TelemetryWriter implements EventHandler<TelemetryEvent>, AutoClosea
     public void onEvent(TelemetryEvent event, long sequence, boolean endOfBatch) {
         sender.table("telemetry")
                 .symbol("processor", event.getProcessorName())
+                .longColumn("events", event.getEvents())
+                .longColumn("service_mean_ns", event.getMeanServiceNanos())
+                .longColumn("service_max_ns", event.getMaxServiceNanos())
+                .longColumn("wait_mean_ns", event.getMeanWaitNanos())
+                .longColumn("lag_mean", event.getMeanLag())
+                .longColumn("lag_max", event.getMaxLag())
+                .longColumn("lag", event.getLag())
                 .longColumn("remaining_capacity", event.getRemainingCapacity())
-                .longColumn("proc_lag_ms", event.getProcessingLagMs())
-                .longColumn("net_lag_ms", event.getNetworkLagMs())
+                .longColumn("occupancy", event.getOccupancy())
                 .at(Instant.ofEpochMilli(event.getTimestamp()));
         
         if (endOfBatch) {
@@ -15,30 +15,37 @@ public class ThetaExitGuard implements EventHandler<MarketEvent> {
 
     @Override
     public void onEvent(MarketEvent event, long sequence, boolean endOfBatch) {
-        positionManager.getAllPositions().forEach((instrumentKey, position) -> {
-            if (instrumentKey.equals(event.getSymbol())) {
-                double pnl = 0;
-                if (position.getSide().equals("BUY")) {
-                    pnl = (event.getLtp() - position.getEntryPrice()) * position.getQuantity();
-                } else {
-                    pnl = (position.getEntryPrice() - event.getLtp()) * position.getQuantity();
-                }
-
-                long timeInMarketSeconds = (event.getTs() - position.getEntryTimestamp()) / 1000;
-                double dayFraction = timeInMarketSeconds / 86400.0;
-                double thetaDecay = event.getTheta() * dayFraction;
-
-                if (pnl + thetaDecay < -THETA_DECAY_THRESHOLD) {
-                    orderManager.placeOrder(
-                            instrumentKey,
-                            position.getQuantity(),
-                            position.getSide().equals("BUY") ? "SELL" : "BUY",
-                            "MARKET",
-                            0
-                    );
-                    positionManager.removePosition(instrumentKey);
-                }
-            }
-        });
+        // Positions are rare relative to ticks: skip the lookup entirely while flat, and
+        // otherwise resolve only the event's own instrument instead of scanning every position.
+        if (positionManager.getAllPositions().isEmpty()) {
+            return;
+        }
+        String instrumentKey = event.getSymbol();
+        Position position = positionManager.getPosition(instrumentKey);
+        if (position == null) {
+            return;
+        }
+
+        double pnl = 0;
+        if (position.getSide().equals("BUY")) {
+            pnl = (event.getLtp() - position.getEntryPrice()) * position.getQuantity();
+        } else {
+            pnl = (position.getEntryPrice() - event.getLtp()) * position.getQuantity();
+        }
+
+        long timeInMarketSeconds = (event.getTs() - position.getEntryTimestamp()) / 1000;
+        double dayFraction = timeInMarketSeconds / 86400.0;
+        double thetaDecay = event.getTheta() * dayFraction;
+
+        if (pnl + thetaDecay < -THETA_DECAY_THRESHOLD) {
+            orderManager.placeOrder(
+                    instrumentKey,
+                    position.getQuantity(),
+                    position.getSide().equals("BUY") ? "SELL" : "BUY",
+                    "MARKET",
+                    0
+            );
+            positionManager.removePosition(instrumentKey);
+        }
     }
 }
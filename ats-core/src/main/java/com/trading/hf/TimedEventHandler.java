@@ -0,0 +1,96 @@
+package com.trading.hf;
+
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.Sequence;
+
+/**
+ * Wraps a market event handler and records, per handler, the time from ring publish to the
+ * handler picking the event up and the time spent inside the handler, both as latency
+ * histograms and as interval {@link HandlerMetrics} together with the handler's sequence lag.
+ */
+public class TimedEventHandler implements EventHandler<MarketEvent> {
+
+    private final String name;
+    private final EventHandler<MarketEvent> delegate;
+    private final LatencyHistogram waitLatency;
+    private final LatencyHistogram serviceLatency;
+    private final HandlerMetrics metrics;
+
+    public TimedEventHandler(String name, EventHandler<MarketEvent> delegate) {
+        this.name = name;
+        this.delegate = delegate;
+        this.waitLatency = LatencyTracker.histogram(LatencyTracker.HANDLER_WAIT + name);
+        this.serviceLatency = LatencyTracker.histogram(LatencyTracker.HANDLER_SERVICE + name);
+        this.metrics = new HandlerMetrics(name);
+    }
+
+    @Override
+    public void onEvent(MarketEvent event, long sequence, boolean endOfBatch) throws Exception {
+        long start = System.nanoTime();
+        long published = event.getPublishNanos();
+        long wait = 0;
+        if (published != 0) {
+            wait = start - published;
+            waitLatency.record(wait);
+        }
+        metrics.onServiceStart(start);
+        try {
+            delegate.onEvent(event, sequence, endOfBatch);
+        } finally {
+            long service = System.nanoTime() - start;
+            serviceLatency.record(service);
+            metrics.onEvent(wait, service, endOfBatch);
+        }
+    }
+
+    @Override
+    public void onBatchStart(long batchSize, long queueDepth) {
+        metrics.onBatchStart(queueDepth);
+        delegate.onBatchStart(batchSize, queueDepth);
+    }
+
+    @Override
+    public void onStart() {
+        delegate.onStart();
+    }
+
+    @Override
+    public void onShutdown() {
+        delegate.onShutdown();
+    }
+
+    @Override
+    public void onTimeout(long sequence) throws Exception {
+        delegate.onTimeout(sequence);
+    }
+
+    @Override
+    public void setSequenceCallback(Sequence sequenceCallback) {
+        metrics.setSequence(sequenceCallback);
+        delegate.setSequenceCallback(sequenceCallback);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public HandlerMetrics getMetrics() {
+        return metrics;
+    }
+
+    public EventHandler<MarketEvent> getDelegate() {
+        return delegate;
+    }
+
+    /** Class name for named handlers, positional name for lambdas. */
+    static String nameOf(EventHandler<?> handler, int index) {
+        if (handler instanceof MarketEventConflator conflator) {
+            return conflator.getName();
+        }
+        Class<?> type = handler.getClass();
+        if (type.isSynthetic() || type.getSimpleName().contains("$$Lambda")) {
+            return "handler-" + index;
+        }
+        return type.getSimpleName();
+    }
+}
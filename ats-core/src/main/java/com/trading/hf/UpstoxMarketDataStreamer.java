@@ -5,7 +5,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.annotations.SerializedName;
 import com.lmax.disruptor.RingBuffer;
-import com.upstox.marketdatafeederv3udapi.rpc.proto.MarketDataFeed;
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
 import org.slf4j.Logger;
@@ -18,46 +17,87 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class UpstoxMarketDataStreamer {
 
     private static final Logger logger = LoggerFactory.getLogger(UpstoxMarketDataStreamer.class);
     private final String accessToken;
-    private final RingBuffer<MarketEvent> marketEventRingBuffer;
-    private final RingBuffer<RawFeedEvent> rawFeedRingBuffer;
-    private final boolean persistenceEnabled;
+    private final InstrumentMaster instrumentMaster;
+    private final List<Connection> connections = new ArrayList<>();
+    private final boolean shardByClass;
+    private final OrderBookEngine orderBookEngine;
+    private final Map<InstrumentClass, String> subscriptionModes = new EnumMap<>(InstrumentClass.class);
     private Set<String> instrumentKeys;
 
-    private WebSocketClient webSocketClient;
     private DynamicStrikeSubscriber strikeSubscriber;
 
     public UpstoxMarketDataStreamer(
             String accessToken,
             RingBuffer<MarketEvent> marketEventRingBuffer,
             RingBuffer<RawFeedEvent> rawFeedRingBuffer,
-            Set<String> instrumentKeys) {
+            Set<String> instrumentKeys,
+            InstrumentMaster instrumentMaster) {
         this.accessToken = accessToken;
-        this.marketEventRingBuffer = marketEventRingBuffer;
-        this.rawFeedRingBuffer = rawFeedRingBuffer;
+        this.instrumentMaster = instrumentMaster;
         this.instrumentKeys = instrumentKeys;
-        this.persistenceEnabled = ConfigLoader.getBooleanProperty("questdb.enabled", false);
+        boolean persistenceEnabled = ConfigLoader.getBooleanProperty("questdb.enabled", false);
+
+        // With more than one connection every decode thread publishes into the market ring,
+        // which DisruptorManager then builds as a MULTI-producer ring.
+        int connectionCount = DisruptorManager.getMarketDataConnectionCount();
+        this.shardByClass = "class".equalsIgnoreCase(ConfigLoader.getProperty("upstox.shard.by", "hash"));
+        String defaultMode = subscriptionMode(ConfigLoader.getProperty("upstox.mode", "full"), "full");
+        for (InstrumentClass instrumentClass : InstrumentClass.values()) {
+            String key = "upstox.mode." + instrumentClass.name().toLowerCase();
+            subscriptionModes.put(instrumentClass, subscriptionMode(ConfigLoader.getProperty(key, defaultMode), defaultMode));
+        }
+        logger.info("Subscription modes: {}", subscriptionModes);
+        // One engine for all connections: each instrument's book is only written by its own shard
+        this.orderBookEngine = ConfigLoader.getBooleanProperty("orderbook.enabled", true)
+                ? new OrderBookEngine(instrumentMaster.getInstrumentIdCapacity())
+                : null;
+        for (int i = 0; i < connectionCount; i++) {
+            String name = connectionCount == 1 ? "upstox-decoder" : "upstox-decoder-" + i;
+            FeedDecoder decoder = new FeedDecoder(marketEventRingBuffer,
+                    persistenceEnabled ? rawFeedRingBuffer : null, instrumentMaster);
+            decoder.setOrderBookEngine(orderBookEngine);
+            connections.add(new Connection(i, new FramePipeline(name, decoder)));
+        }
+        for (String key : instrumentKeys) {
+            connectionFor(key).instrumentKeys.add(key);
+        }
     }
 
     public void connect() {
-        try {
-            URI serverUri = getWebsocketUrl(this.accessToken);
-            this.webSocketClient = createWebSocketClient(serverUri);
-            this.webSocketClient.connect();
-        } catch (IOException | InterruptedException e) {
-            logger.error("Failed to connect to Upstox WebSocket", e);
-            Thread.currentThread().interrupt();
+        for (Connection connection : connections) {
+            try {
+                URI serverUri = getWebsocketUrl(this.accessToken);
+                connection.client = createWebSocketClient(serverUri, connection);
+                connection.client.connect();
+            } catch (IOException | InterruptedException e) {
+                logger.error("Failed to connect to Upstox WebSocket (connection {})", connection.index, e);
+                Thread.currentThread().interrupt();
+                return;
+            }
         }
     }
 
     private URI getWebsocketUrl(String token) throws IOException, InterruptedException {
+        // Direct feed URL (e.g. a local WebSocket stand-in) bypasses the authorize call
+        String feedUrl = ConfigLoader.getProperty("upstox.feed.url");
+        if (feedUrl != null && !feedUrl.isEmpty()) {
+            return URI.create(feedUrl);
+        }
+
         String url = "https://api.upstox.com/v3/feed/market-data-feed/authorize";
         HttpClient httpClient = HttpClient.newHttpClient();
         HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url))
@@ -94,12 +134,16 @@ public class UpstoxMarketDataStreamer {
         return URI.create(redirectUri);
     }
 
-    private WebSocketClient createWebSocketClient(URI serverUri) {
+    private WebSocketClient createWebSocketClient(URI serverUri, Connection connection) {
+        FramePipeline framePipeline = connection.framePipeline;
         return new WebSocketClient(serverUri) {
             @Override
             public void onOpen(ServerHandshake handshakedata) {
-                logger.info("Upstox WebSocket connection opened");
-                sendSubscriptionRequest(this, instrumentKeys);
+                logger.info("Upstox WebSocket connection {} opened ({} instruments)",
+                        connection.index, connection.instrumentKeys.size());
+                if (!connection.instrumentKeys.isEmpty()) {
+                    sendSubscriptionRequest(this, connection.instrumentKeys);
+                }
             }
 
             @Override
@@ -109,69 +153,61 @@ public class UpstoxMarketDataStreamer {
 
             @Override
             public void onMessage(ByteBuffer bytes) {
-                handleBinaryMessage(bytes);
+                // Read thread only hands the frame to the decode stage
+                framePipeline.onFrame(bytes);
             }
 
             @Override
             public void onClose(int code, String reason, boolean remote) {
-                logger.info("Upstox WebSocket connection closed by {}. Code: {}, Reason: {}",
-                        (remote ? "remote peer" : "us"), code, reason);
+                logger.info("Upstox WebSocket connection {} closed by {}. Code: {}, Reason: {}",
+                        connection.index, (remote ? "remote peer" : "us"), code, reason);
             }
 
             @Override
             public void onError(Exception ex) {
-                logger.error("Upstox WebSocket error", ex);
+                logger.error("Upstox WebSocket error (connection {})", connection.index, ex);
             }
         };
     }
 
-    private void handleBinaryMessage(ByteBuffer bytes) {
-        try {
-            byte[] data = new byte[bytes.remaining()];
-            bytes.get(data);
-            MarketDataFeed.FeedResponse feedResponse = MarketDataFeed.FeedResponse.parseFrom(data);
-            feedResponse.getFeedsMap().forEach((instrumentToken, feed) -> {
-                double currentSpot = -1;
-                if (feed.hasLtpc()) {
-                    currentSpot = feed.getLtpc().getLtp();
-                } else if (feed.hasFullFeed() && feed.getFullFeed().hasIndexFF()) {
-                    var iff = feed.getFullFeed().getIndexFF();
-                    if (iff.hasLtpc()) {
-                        currentSpot = iff.getLtpc().getLtp();
-                    }
-                }
-
-                if (strikeSubscriber != null && currentSpot > 0 && instrumentToken.equals(ConfigLoader.getProperty("index.instrument.key"))) {
-                    strikeSubscriber.onSpotPrice(currentSpot);
-                }
-
-                publishMarketEvent(instrumentToken, feed);
-
-                if (persistenceEnabled) {
-                    publishRawFeedUpdate(instrumentToken, feed);
-                }
-            });
+    private void sendSubscriptionRequest(WebSocketClient client, Set<String> instruments) {
+        sendRequests(client, "sub", instruments);
+    }
 
-        } catch (Exception e) {
-            logger.error("Error parsing binary message from Upstox", e);
-        }
+    private void sendUnsubscriptionRequest(WebSocketClient client, Set<String> instruments) {
+        sendRequests(client, "unsub", instruments);
     }
 
-    private void sendSubscriptionRequest(WebSocketClient client, Set<String> instruments) {
-        JsonObject requestObject = constructSubscriptionRequest("sub", instruments);
-        byte[] binaryData = requestObject.toString().getBytes(StandardCharsets.UTF_8);
-        client.send(binaryData);
+    // One request per subscription mode in use
+    private void sendRequests(WebSocketClient client, String method, Set<String> instruments) {
+        Map<String, Set<String>> byMode = new HashMap<>();
+        for (String key : instruments) {
+            String mode = subscriptionModes.get(InstrumentClass.of(key, instrumentMaster));
+            byMode.computeIfAbsent(mode, m -> new HashSet<>()).add(key);
+        }
+        for (Map.Entry<String, Set<String>> entry : byMode.entrySet()) {
+            JsonObject requestObject = constructSubscriptionRequest(method, entry.getKey(), entry.getValue());
+            byte[] binaryData = requestObject.toString().getBytes(StandardCharsets.UTF_8);
+            client.send(binaryData);
+        }
     }
 
-    private void sendUnsubscriptionRequest(WebSocketClient client, Set<String> instruments) {
-        JsonObject requestObject = constructSubscriptionRequest("unsub", instruments);
-        byte[] binaryData = requestObject.toString().getBytes(StandardCharsets.UTF_8);
-        client.send(binaryData);
+    // Upstox v3 modes; "full" carries 5 depth levels, so full_d5 is accepted as its alias
+    private static String subscriptionMode(String configured, String fallback) {
+        String mode = configured.trim().toLowerCase();
+        return switch (mode) {
+            case "ltpc", "option_greeks", "full", "full_d30" -> mode;
+            case "full_d5" -> "full";
+            default -> {
+                logger.warn("Unknown subscription mode '{}', using '{}'", configured, fallback);
+                yield fallback;
+            }
+        };
     }
 
-    private JsonObject constructSubscriptionRequest(String method, Set<String> instruments) {
+    private JsonObject constructSubscriptionRequest(String method, String mode, Set<String> instruments) {
         JsonObject dataObject = new JsonObject();
-        dataObject.addProperty("mode", "full");
+        dataObject.addProperty("mode", mode);
         JsonArray instrumentKeysArray = new Gson().toJsonTree(instruments).getAsJsonArray();
         dataObject.add("instrumentKeys", instrumentKeysArray);
 
@@ -183,126 +219,86 @@ public class UpstoxMarketDataStreamer {
         return mainObject;
     }
 
-    private void publishMarketEvent(String token, MarketDataFeed.Feed feed) {
-        long sequence = marketEventRingBuffer.next();
-        try {
-            MarketEvent event = marketEventRingBuffer.get(sequence);
-            event.setSymbol(token);
-
-            if (feed.hasLtpc()) {
-                MarketDataFeed.LTPC ltpc = feed.getLtpc();
-                event.setLtp(ltpc.getLtp());
-                event.setLtt(ltpc.getLtt());
-                event.setLtq(ltpc.getLtq());
-                event.setCp(ltpc.getCp());
-            }
-
-            if (feed.hasFullFeed() && feed.getFullFeed().hasMarketFF()) {
-                MarketDataFeed.MarketFullFeed mff = feed.getFullFeed().getMarketFF();
-                event.setAtp(mff.getAtp());
-                event.setVtt(mff.getVtt());
-                event.setOi(mff.getOi());
-                event.setIv(mff.getIv());
-                event.setTbq(mff.getTbq());
-                event.setTsq(mff.getTsq());
-
-                if (mff.hasOptionGreeks()) {
-                    event.setTheta(mff.getOptionGreeks().getTheta());
-                    event.setOptionDelta(mff.getOptionGreeks().getDelta());
-                }
-
-                if (mff.hasMarketOHLC()) {
-                    for (MarketDataFeed.OHLC ohlc : mff.getMarketOHLC().getOhlcList()) {
-                        if ("1d".equals(ohlc.getInterval())) {
-                            event.setDayOpen(ohlc.getOpen());
-                            event.setDayHigh(ohlc.getHigh());
-                            event.setDayLow(ohlc.getLow());
-                            event.setDayClose(ohlc.getClose());
-                            break;
-                        }
-                    }
-                }
-            } else if (feed.hasFullFeed() && feed.getFullFeed().hasIndexFF()) {
-                MarketDataFeed.IndexFullFeed iff = feed.getFullFeed().getIndexFF();
-                if (iff.hasLtpc()) {
-                    MarketDataFeed.LTPC ltpc = iff.getLtpc();
-                    event.setLtp(ltpc.getLtp());
-                    event.setLtt(ltpc.getLtt());
-                    event.setCp(ltpc.getCp());
-                    event.setLtq(0);
-                }
-
-                if (iff.hasMarketOHLC()) {
-                    for (MarketDataFeed.OHLC ohlc : iff.getMarketOHLC().getOhlcList()) {
-                        if ("1d".equals(ohlc.getInterval())) {
-                            event.setDayOpen(ohlc.getOpen());
-                            event.setDayHigh(ohlc.getHigh());
-                            event.setDayLow(ohlc.getLow());
-                            event.setDayClose(ohlc.getClose());
-                            break;
-                        }
-                    }
-                }
-            }
-
-            event.setTs(System.currentTimeMillis());
-        } finally {
-            marketEventRingBuffer.publish(sequence);
+    public void setStrikeSubscriber(DynamicStrikeSubscriber subscriber) {
+        this.strikeSubscriber = subscriber;
+        String indexKey = ConfigLoader.getProperty("index.instrument.key");
+        for (Connection connection : connections) {
+            connection.framePipeline.getDecoder().setSpotListener(indexKey, subscriber::onSpotPrice);
         }
     }
 
-    private void publishRawFeedUpdate(String token, MarketDataFeed.Feed feed) {
-        long sequence = rawFeedRingBuffer.next();
-        try {
-            RawFeedEvent event = rawFeedRingBuffer.get(sequence);
-            event.setInstrumentKey(token);
-
-            if (feed.hasLtpc()) {
-                event.setLtp(feed.getLtpc().getLtp());
-            }
-
-            if (feed.hasFullFeed() && feed.getFullFeed().hasMarketFF()
-                    && feed.getFullFeed().getMarketFF().hasMarketLevel()) {
-                var quotes = feed.getFullFeed().getMarketFF().getMarketLevel().getBidAskQuoteList();
-                if (quotes != null && !quotes.isEmpty()) {
-                    event.setBestBid(quotes.get(0).getBidP());
-                    event.setBestAsk(quotes.get(0).getAskP());
-
-                    event.setBids(quotes.stream()
-                            .map(q -> new RawFeedEvent.BookEntry(q.getBidP(), q.getBidQ(), 0))
-                            .collect(Collectors.toList()));
-
-                    event.setAsks(quotes.stream()
-                            .map(q -> new RawFeedEvent.BookEntry(q.getAskP(), q.getAskQ(), 0))
-                            .collect(Collectors.toList()));
-                }
+    public void disconnect() {
+        for (Connection connection : connections) {
+            if (connection.client != null) {
+                connection.client.close();
             }
-        } finally {
-            rawFeedRingBuffer.publish(sequence);
+            connection.framePipeline.shutdown();
         }
     }
 
-    public void setStrikeSubscriber(DynamicStrikeSubscriber subscriber) {
-        this.strikeSubscriber = subscriber;
+    public OrderBookEngine getOrderBookEngine() {
+        return orderBookEngine;
     }
 
-    public void disconnect() {
-        if (webSocketClient != null) {
-            webSocketClient.close();
+    public List<FramePipeline> getFramePipelines() {
+        List<FramePipeline> pipelines = new ArrayList<>();
+        for (Connection connection : connections) {
+            pipelines.add(connection.framePipeline);
         }
+        return pipelines;
     }
 
     public void subscribe(Set<String> newInstrumentKeys) {
         this.instrumentKeys.addAll(newInstrumentKeys);
-        if (webSocketClient != null && webSocketClient.isOpen()) {
-            sendSubscriptionRequest(webSocketClient, newInstrumentKeys);
+        for (Map.Entry<Connection, Set<String>> shard : partition(newInstrumentKeys).entrySet()) {
+            Connection connection = shard.getKey();
+            connection.instrumentKeys.addAll(shard.getValue());
+            if (connection.client != null && connection.client.isOpen()) {
+                sendSubscriptionRequest(connection.client, shard.getValue());
+            }
         }
     }
 
     public void unsubscribe(Set<String> instrumentKeysToRemove) {
         this.instrumentKeys.removeAll(instrumentKeysToRemove);
-        if (webSocketClient != null && webSocketClient.isOpen()) {
-            sendUnsubscriptionRequest(webSocketClient, instrumentKeysToRemove);
+        for (Map.Entry<Connection, Set<String>> shard : partition(instrumentKeysToRemove).entrySet()) {
+            Connection connection = shard.getKey();
+            connection.instrumentKeys.removeAll(shard.getValue());
+            if (connection.client != null && connection.client.isOpen()) {
+                sendUnsubscriptionRequest(connection.client, shard.getValue());
+            }
+        }
+    }
+
+    private Map<Connection, Set<String>> partition(Set<String> keys) {
+        Map<Connection, Set<String>> shards = new HashMap<>();
+        for (String key : keys) {
+            shards.computeIfAbsent(connectionFor(key), c -> new HashSet<>()).add(key);
+        }
+        return shards;
+    }
+
+    // An instrument always maps to the same connection, so its ticks keep their order.
+    private Connection connectionFor(String instrumentKey) {
+        int n = connections.size();
+        if (n == 1) {
+            return connections.get(0);
+        }
+        int shard = shardByClass
+                ? InstrumentClass.of(instrumentKey, instrumentMaster).ordinal() % n
+                : (instrumentKey.hashCode() & Integer.MAX_VALUE) % n;
+        return connections.get(shard);
+    }
+
+    private static class Connection {
+        final int index;
+        final FramePipeline framePipeline;
+        final Set<String> instrumentKeys = ConcurrentHashMap.newKeySet();
+        volatile WebSocketClient client;
+
+        Connection(int index, FramePipeline framePipeline) {
+            this.index = index;
+            this.framePipeline = framePipeline;
         }
     }
 }
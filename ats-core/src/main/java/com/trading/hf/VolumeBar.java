@@ -1,8 +1,12 @@
 package com.trading.hf;
 
+/**
+ * A completed volume bar. Bars are reused: {@link VolumeBarGenerator} fills ring slots in place,
+ * so a consumer that keeps a bar past its callback must copy it.
+ */
 public class VolumeBar {
-    private final String symbol;
-    private final long startTime;
+    private String symbol;
+    private long startTime;
     private double open;
     private double high;
     private double low;
@@ -11,6 +15,14 @@ public class VolumeBar {
     private double vwap;
     private double cumulativeVolumeDelta;
     private double orderBookImbalance;
+    private long lastReceiveNanos;
+
+    public VolumeBar() {
+    }
+
+    public VolumeBar(VolumeBar other) {
+        copyFrom(other);
+    }
 
     public VolumeBar(String symbol, long startTime, double price, long volume) {
         this.symbol = symbol;
@@ -23,6 +35,27 @@ public class VolumeBar {
         this.vwap = price;
     }
 
+    /** Overwrites every field, for reuse of pooled bars. */
+    public void set(String symbol, long startTime, double open, double high, double low, double close, long volume,
+            double vwap, double cumulativeVolumeDelta, double orderBookImbalance, long lastReceiveNanos) {
+        this.symbol = symbol;
+        this.startTime = startTime;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+        this.vwap = vwap;
+        this.cumulativeVolumeDelta = cumulativeVolumeDelta;
+        this.orderBookImbalance = orderBookImbalance;
+        this.lastReceiveNanos = lastReceiveNanos;
+    }
+
+    public void copyFrom(VolumeBar other) {
+        set(other.symbol, other.startTime, other.open, other.high, other.low, other.close, other.volume,
+                other.vwap, other.cumulativeVolumeDelta, other.orderBookImbalance, other.lastReceiveNanos);
+    }
+
     public void addTick(double price, long tickVolume, int side) {
         this.high = Math.max(this.high, price);
         this.low = Math.min(this.low, price);
@@ -79,4 +112,13 @@ public class VolumeBar {
     public void setOrderBookImbalance(double orderBookImbalance) {
         this.orderBookImbalance = orderBookImbalance;
     }
+
+    /** Socket receive time (System.nanoTime) of the tick that closed the bar; 0 for replayed data. */
+    public long getLastReceiveNanos() {
+        return lastReceiveNanos;
+    }
+
+    public void setLastReceiveNanos(long lastReceiveNanos) {
+        this.lastReceiveNanos = lastReceiveNanos;
+    }
 }
@@ -1,20 +1,95 @@
 package com.trading.hf;
 
 import com.lmax.disruptor.EventHandler;
-import java.util.concurrent.ConcurrentHashMap;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import java.util.Arrays;
 import java.util.function.Consumer;
 
+/**
+ * Builds volume bars per instrument. The running bar of every instrument lives in primitive
+ * arrays indexed by InstrumentMaster id, and completed bars are written into the preallocated
+ * slots of a bar ring (volume.bar.ring.size), so the market handler allocates nothing per tick.
+ * The bar and dashboard consumers run on the bar ring's own thread; the dashboard consumer only
+ * gets the last bar of each batch. The bar ring and its thread start only once the generator runs
+ * as a handler (onStart, or its first completed bar when driven directly) and stop with it (onShutdown).
+ *
+ * With volume.bar.mode=adaptive each instrument gets its own threshold, aiming at
+ * volume.bar.target.bars bars per session of volume.bar.session.minutes. Tick volume is then
+ * the vtt delta (ltq for instruments without vtt, and 1 per tick for those without either, such
+ * as the index). An instrument's first bar closes on time after one target bar period; every
+ * completed bar updates an EWMA (volume.bar.adaptive.alpha) of the instrument's volume per
+ * exchange-time ms, and the next threshold is that rate times the target bar period, floored at
+ * the constructor's threshold.
+ */
 public class VolumeBarGenerator implements EventHandler<MarketEvent> {
 
     private final long volumeThreshold;
-    private final ConcurrentHashMap<String, VolumeBar> runningBars = new ConcurrentHashMap<>();
+    private final boolean adaptive;
+    private final long targetBarMillis;
+    private final double alpha;
     private final Consumer<VolumeBar> barConsumer;
-    private Consumer<VolumeBar> dashboardConsumer;
-    private volatile VolumeBar lastCompletedBar;
+    private volatile Consumer<VolumeBar> dashboardConsumer;
+    // Copy of the last completed bar for snapshot readers, guarded by itself
+    private final VolumeBar lastCompletedBar = new VolumeBar();
+    private volatile boolean hasCompletedBar;
+
+    private final int barRingSize;
+    private volatile Disruptor<VolumeBar> barDisruptor;
+    // Handler thread only
+    private RingBuffer<VolumeBar> barRingBuffer;
+
+    // Running bar per instrument id. Only touched by the handler thread.
+    private String[] symbols;
+    private boolean[] active;
+    private long[] startTimes;
+    private double[] opens;
+    private double[] highs;
+    private double[] lows;
+    private double[] closes;
+    private long[] volumes;
+    private double[] priceVolumes;
+    private double[] volumeDeltas;
+    // Adaptive mode
+    private long[] barStartMillis;
+    private long[] lastVtts;
+    private double[] volumeRates;
+    private double[] thresholds;
 
     public VolumeBarGenerator(long volumeThreshold, Consumer<VolumeBar> barConsumer) {
         this.volumeThreshold = volumeThreshold;
         this.barConsumer = barConsumer;
+        this.adaptive = "adaptive".equalsIgnoreCase(ConfigLoader.getProperty("volume.bar.mode", "fixed").trim());
+        long sessionMillis = ConfigLoader.getLongProperty("volume.bar.session.minutes", 375) * 60_000;
+        this.targetBarMillis = Math.max(1, sessionMillis / Math.max(1, ConfigLoader.getLongProperty("volume.bar.target.bars", 75)));
+        this.alpha = Double.parseDouble(ConfigLoader.getProperty("volume.bar.adaptive.alpha", "0.2"));
+        allocate((int) ConfigLoader.getLongProperty("instrument.id.capacity", 1024));
+        this.barRingSize = (int) ConfigLoader.getLongProperty("volume.bar.ring.size", 1024);
+    }
+
+    private void startBarRing() {
+        Disruptor<VolumeBar> disruptor = new Disruptor<>(
+                VolumeBar::new,
+                barRingSize,
+                RingThreadFactory.forRing("volumebars", RingThreadFactory.Model.PLATFORM),
+                ProducerType.SINGLE,
+                DisruptorManager.getWaitStrategy("volumebars"));
+        disruptor.handleEventsWith(this::onBar);
+        barRingBuffer = disruptor.start();
+        barDisruptor = disruptor;
+    }
+
+    @Override
+    public void onStart() {
+        if (barRingBuffer == null) {
+            startBarRing();
+        }
+    }
+
+    @Override
+    public void onShutdown() {
+        shutdown();
     }
 
     public void setDashboardConsumer(Consumer<VolumeBar> dashboardConsumer) {
@@ -23,29 +98,160 @@ public class VolumeBarGenerator implements EventHandler<MarketEvent> {
 
     @Override
     public void onEvent(MarketEvent event, long sequence, boolean endOfBatch) {
-        runningBars.compute(event.getSymbol(), (symbol, bar) -> {
-            if (bar == null) {
-                bar = new VolumeBar(symbol, event.getLtt(), event.getLtp(), event.getLtq());
-            } else {
-                int side = determineSide(event);
-                bar.addTick(event.getLtp(), event.getLtq(), side);
-            }
+        int id = event.getInstrumentId();
+        if (id < 0) {
+            return;
+        }
+        if (id >= active.length) {
+            grow(Math.max(id + 1, active.length * 2));
+        }
 
-            if (bar.getVolume() >= volumeThreshold) {
-                bar.setOrderBookImbalance(calculateOBI(event));
-                lastCompletedBar = bar;
-                barConsumer.accept(bar); // for console logging
-                if (dashboardConsumer != null) {
-                    dashboardConsumer.accept(bar); // for dashboard broadcasting
-                }
-                return null; // Start a new bar
+        double price = event.getLtp();
+        long quantity = adaptive ? tradedVolume(id, event) : event.getLtq();
+        long time = event.getTs() != 0 ? event.getTs() : event.getLtt();
+        if (!active[id]) {
+            active[id] = true;
+            barStartMillis[id] = time;
+            symbols[id] = event.getSymbol();
+            startTimes[id] = event.getLtt();
+            opens[id] = price;
+            highs[id] = price;
+            lows[id] = price;
+            volumes[id] = 0;
+            priceVolumes[id] = 0;
+            volumeDeltas[id] = 0;
+        } else {
+            highs[id] = Math.max(highs[id], price);
+            lows[id] = Math.min(lows[id], price);
+            // side == 1 for buy, -1 for sell
+            volumeDeltas[id] += quantity * determineSide(event);
+        }
+        closes[id] = price;
+        volumes[id] += quantity;
+        priceVolumes[id] += price * quantity;
+
+        if (adaptive ? isAdaptiveBarComplete(id, time) : volumes[id] >= volumeThreshold) {
+            active[id] = false;
+            if (adaptive) {
+                recalibrate(id, time);
+            }
+            if (barRingBuffer == null) {
+                startBarRing();
             }
-            return bar;
-        });
+            long barSequence = barRingBuffer.next();
+            try {
+                long volume = volumes[id];
+                barRingBuffer.get(barSequence).set(symbols[id], startTimes[id], opens[id], highs[id], lows[id], price,
+                        volume, volume > 0 ? priceVolumes[id] / volume : price, volumeDeltas[id],
+                        calculateOBI(event), event.getReceiveNanos());
+            } finally {
+                barRingBuffer.publish(barSequence);
+            }
+        }
+    }
+
+    private long tradedVolume(int id, MarketEvent event) {
+        long vtt = event.getVtt();
+        if (vtt <= 0) {
+            long ltq = event.getLtq();
+            return ltq > 0 ? ltq : 1;
+        }
+        long last = lastVtts[id];
+        lastVtts[id] = vtt;
+        if (last == 0) {
+            return event.getLtq();
+        }
+        // vtt restarts from zero with a new session
+        return vtt >= last ? vtt - last : vtt;
+    }
+
+    private boolean isAdaptiveBarComplete(int id, long time) {
+        double threshold = thresholds[id];
+        if (threshold > 0) {
+            return volumes[id] >= threshold;
+        }
+        // Not calibrated yet: the bar spans one target bar period
+        return time - barStartMillis[id] >= targetBarMillis;
+    }
+
+    private void recalibrate(int id, long time) {
+        double rate = (double) volumes[id] / Math.max(1, time - barStartMillis[id]);
+        double previous = volumeRates[id];
+        double smoothed = previous == 0 ? rate : previous + alpha * (rate - previous);
+        volumeRates[id] = smoothed;
+        thresholds[id] = smoothed > 0 ? Math.max(Math.max(1, volumeThreshold), smoothed * targetBarMillis) : 0;
+    }
+
+    /** Current adaptive threshold of an instrument (0 while calibrating), or the fixed threshold. */
+    public double getThreshold(int id) {
+        if (!adaptive) {
+            return volumeThreshold;
+        }
+        double[] current = thresholds;
+        return id >= 0 && id < current.length ? current[id] : 0;
+    }
+
+    private void onBar(VolumeBar bar, long sequence, boolean endOfBatch) {
+        synchronized (lastCompletedBar) {
+            lastCompletedBar.copyFrom(bar);
+        }
+        hasCompletedBar = true;
+        barConsumer.accept(bar); // for console logging
+        Consumer<VolumeBar> dashboard = dashboardConsumer;
+        if (endOfBatch && dashboard != null) {
+            dashboard.accept(bar); // for dashboard broadcasting
+        }
     }
 
+    /** Copy of the last completed bar, or null before the first one. */
     public VolumeBar getLastBar() {
-        return lastCompletedBar;
+        if (!hasCompletedBar) {
+            return null;
+        }
+        synchronized (lastCompletedBar) {
+            return new VolumeBar(lastCompletedBar);
+        }
+    }
+
+    public void shutdown() {
+        Disruptor<VolumeBar> disruptor = barDisruptor;
+        if (disruptor != null) {
+            disruptor.shutdown();
+        }
+    }
+
+    private void allocate(int capacity) {
+        symbols = new String[capacity];
+        active = new boolean[capacity];
+        startTimes = new long[capacity];
+        opens = new double[capacity];
+        highs = new double[capacity];
+        lows = new double[capacity];
+        closes = new double[capacity];
+        volumes = new long[capacity];
+        priceVolumes = new double[capacity];
+        volumeDeltas = new double[capacity];
+        barStartMillis = new long[capacity];
+        lastVtts = new long[capacity];
+        volumeRates = new double[capacity];
+        thresholds = new double[capacity];
+    }
+
+    private void grow(int capacity) {
+        symbols = Arrays.copyOf(symbols, capacity);
+        active = Arrays.copyOf(active, capacity);
+        startTimes = Arrays.copyOf(startTimes, capacity);
+        opens = Arrays.copyOf(opens, capacity);
+        highs = Arrays.copyOf(highs, capacity);
+        lows = Arrays.copyOf(lows, capacity);
+        closes = Arrays.copyOf(closes, capacity);
+        volumes = Arrays.copyOf(volumes, capacity);
+        priceVolumes = Arrays.copyOf(priceVolumes, capacity);
+        volumeDeltas = Arrays.copyOf(volumeDeltas, capacity);
+        barStartMillis = Arrays.copyOf(barStartMillis, capacity);
+        lastVtts = Arrays.copyOf(lastVtts, capacity);
+        volumeRates = Arrays.copyOf(volumeRates, capacity);
+        thresholds = Arrays.copyOf(thresholds, capacity);
     }
 
     private int determineSide(MarketEvent event) {
@@ -1,85 +1,126 @@
 package com.trading.hf.alphapulse;
 
-import com.trading.hf.Candle;
+import com.trading.hf.BarEngine;
+import com.trading.hf.BarSeries;
+import com.trading.hf.BarSpec;
 import com.trading.hf.MarketEvent;
 import com.trading.hf.InstrumentMaster;
+import com.trading.hf.LatencyHistogram;
+import com.trading.hf.LatencyTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.trading.hf.SignalEvent;
 import com.lmax.disruptor.RingBuffer;
 
 import java.time.LocalDate;
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index-led option signals. The engine can run as several instrument partitions of the market
+ * ring: each instance owns the {@link SymbolState} of its own instruments, and everything it
+ * needs from other instruments (the index view, the ATM call and put, the trap cool-off) goes
+ * through a {@link SharedState} that the owning partition publishes after every update.
+ */
 public class AlphaPulseEngine {
 
     private static final Logger logger = LoggerFactory.getLogger(AlphaPulseEngine.class);
 
     // Configuration
-    private static final long MACRO_CANDLE_DURATION_MS = 50 * 60 * 1000;
+    private static final int MACRO_CANDLE_MINUTES = 50;
     private static final int MACRO_CANDLE_WINDOW_SIZE = 20;
-    private static final long MICRO_CANDLE_DURATION_MS = 5 * 60 * 1000;
+    private static final int MICRO_CANDLE_MINUTES = 5;
+    private static final int MACRO = 0;
+    private static final int MICRO = 1;
     private static final long ALPHA_CALCULATION_INTERVAL_MS = 500;
     private static final int TRAP_COOL_OFF_MINUTES = 10;
 
-    // Data Structures
-    private final ConcurrentHashMap<String, Deque<Candle>> macroCandles = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, Deque<Candle>> microCandles = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, Zone> valueZones = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, SymbolState> symbolStates = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, Long> lastAlphaCalcTime = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, Boolean> priceActionTriggers = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, Integer> trapCount = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, Long> coolOffUntil = new ConcurrentHashMap<>();
+    // Data Structures. Per-instrument state of this partition is indexed by InstrumentMaster id.
+    // The zone and trigger are only written by the partition that owns the index.
+    private SymbolState[] symbolStates;
+    // Macro and micro candles of the index, built on this partition's thread
+    private final BarEngine bars = new BarEngine(List.of(
+            BarSpec.time(MACRO_CANDLE_MINUTES, TimeUnit.MINUTES),
+            BarSpec.time(MICRO_CANDLE_MINUTES, TimeUnit.MINUTES)), MACRO_CANDLE_WINDOW_SIZE);
+    private Zone indexZone;
+    private long indexTriggerGeneration;
+    private long triggerCounter;
+    private final SharedState shared;
     private final RingBuffer<SignalEvent> signalRingBuffer;
     private final InstrumentMaster instrumentMaster;
     private final String indexSymbol;
+    private final int indexId;
+    private final LatencyHistogram signalLatency = LatencyTracker.histogram(LatencyTracker.RECEIVE_TO_SIGNAL + "alphapulse");
+    private long currentReceiveNanos;
 
     public AlphaPulseEngine(RingBuffer<SignalEvent> signalRingBuffer, String indexSymbol, InstrumentMaster instrumentMaster) {
+        this(signalRingBuffer, indexSymbol, instrumentMaster, new SharedState(instrumentMaster.getInstrumentIdCapacity()));
+    }
+
+    /** One partition; all partitions of an engine must be given the same shared state. */
+    public AlphaPulseEngine(RingBuffer<SignalEvent> signalRingBuffer, String indexSymbol, InstrumentMaster instrumentMaster,
+            SharedState shared) {
         this.signalRingBuffer = signalRingBuffer;
+        this.shared = shared;
         this.indexSymbol = indexSymbol;
         this.instrumentMaster = instrumentMaster;
+        this.indexId = instrumentMaster.getInstrumentId(indexSymbol);
+        this.symbolStates = new SymbolState[instrumentMaster.getInstrumentIdCapacity()];
         logger.info("AlphaPulseEngine initialized for index: {}", indexSymbol);
     }
 
     public void onMarketEvent(MarketEvent event) {
-        updateSymbolState(event);
-        if (event.getSymbol().equals(indexSymbol)) {
-            updateMacroView(event);
-            updateMicroView(event);
+        int id = event.getInstrumentId();
+        if (id < 0) return;
+        currentReceiveNanos = event.getReceiveNanos();
+        SymbolState state = stateFor(id);
+        state.update(event);
+        if (id == indexId) {
+            bars.update(event);
+            updateMacroView(id);
+            updateMicroView(event, id);
+            shared.index = new IndexView(state.previousLtp, state.currentLtp, indexZone, indexTriggerGeneration);
         } else {
-            calculateAlphaEfficiency(event);
+            calculateAlphaEfficiency(event, state);
+            BarSeries micro = bars.getSeries(MICRO, id);
+            shared.publishOption(id, state, micro != null && micro.isRunning() ? micro.getRunningLow() : Double.NaN);
             updateSentimentAndExecute();
         }
     }
 
-    private void updateSymbolState(MarketEvent event) {
-        symbolStates.putIfAbsent(event.getSymbol(), new SymbolState());
-        symbolStates.get(event.getSymbol()).update(event);
+    private SymbolState stateFor(int id) {
+        if (id >= symbolStates.length) {
+            symbolStates = Arrays.copyOf(symbolStates, instrumentMaster.getInstrumentIdCapacity());
+        }
+        SymbolState state = symbolStates[id];
+        if (state == null) {
+            state = new SymbolState();
+            symbolStates[id] = state;
+        }
+        return state;
     }
 
-    private void calculateAlphaEfficiency(MarketEvent optionEvent) {
+    private void calculateAlphaEfficiency(MarketEvent optionEvent, SymbolState optionState) {
         long currentTime = System.currentTimeMillis();
-        lastAlphaCalcTime.putIfAbsent(optionEvent.getSymbol(), 0L);
 
-        if (currentTime - lastAlphaCalcTime.get(optionEvent.getSymbol()) < ALPHA_CALCULATION_INTERVAL_MS) {
+        if (currentTime - optionState.lastAlphaCalcTime < ALPHA_CALCULATION_INTERVAL_MS) {
             return;
         }
 
-        SymbolState optionState = symbolStates.get(optionEvent.getSymbol());
-        SymbolState indexState = symbolStates.get(this.indexSymbol);
+        IndexView indexView = shared.index;
 
-        if (optionState == null || indexState == null || optionState.previousLtp == 0 || indexState.previousLtp == 0) {
+        if (indexView == null || optionState.previousLtp == 0 || indexView.previousLtp == 0) {
             return;
         }
 
         double optionDelta = optionEvent.getOptionDelta();
         if (optionDelta == 0) return;
 
-        double indexMove = indexState.currentLtp - indexState.previousLtp;
+        double indexMove = indexView.currentLtp - indexView.previousLtp;
         double expectedMove = indexMove * optionDelta;
         double actualMove = optionState.currentLtp - optionState.previousLtp;
 
@@ -87,32 +128,32 @@ public class AlphaPulseEngine {
         optionState.alpha = alpha;
 
         if ((indexMove > 0 && alpha < 0.7) || (indexMove < 0 && alpha < 0.7)) {
-            trapCount.merge(indexSymbol, 1, Integer::sum);
-            if (trapCount.get(indexSymbol) >= 3) {
-                coolOffUntil.put(indexSymbol, currentTime + TRAP_COOL_OFF_MINUTES * 60 * 1000);
-                trapCount.put(indexSymbol, 0);
+            if (shared.trapCount.incrementAndGet() >= 3) {
+                shared.coolOffUntil = currentTime + TRAP_COOL_OFF_MINUTES * 60 * 1000;
+                shared.trapCount.set(0);
             }
         } else {
-            trapCount.put(indexSymbol, 0);
+            shared.trapCount.set(0);
         }
 
-        lastAlphaCalcTime.put(optionEvent.getSymbol(), currentTime);
+        optionState.lastAlphaCalcTime = currentTime;
     }
 
     private void updateSentimentAndExecute() {
-        Zone zone = valueZones.get(indexSymbol);
-        if (zone == null || System.currentTimeMillis() < coolOffUntil.getOrDefault(indexSymbol, 0L)) {
+        IndexView indexView = shared.index;
+        if (indexView == null || indexView.zone == null || System.currentTimeMillis() < shared.coolOffUntil) {
             return;
         }
+        Zone zone = indexView.zone;
 
-        SymbolState indexState = symbolStates.get(indexSymbol);
-        if (indexState == null) return;
-
-        double indexPrice = indexState.currentLtp;
+        double indexPrice = indexView.currentLtp;
         boolean inSupportZone = indexPrice >= zone.getSupport() && indexPrice <= zone.getSupport() * 1.005;
         boolean inResistanceZone = indexPrice <= zone.getResistance() && indexPrice >= zone.getResistance() * 0.995;
 
-        if (priceActionTriggers.getOrDefault(indexSymbol, false)) {
+        // A trigger is consumed by the first signal raised on it, whichever partition gets there
+        long trigger = indexView.triggerGeneration;
+        long consumed = shared.consumedTrigger.get();
+        if (trigger > consumed) {
             int atmStrike = (int) (Math.round(indexPrice / 50.0) * 50);
 
             Optional<LocalDate> expiry = instrumentMaster.findNearestExpiry(indexSymbol, LocalDate.now());
@@ -126,94 +167,68 @@ public class AlphaPulseEngine {
             String callSymbol = callSymbolOpt.get();
             String putSymbol = putSymbolOpt.get();
 
-            SymbolState callState = symbolStates.get(callSymbol);
-            SymbolState putState = symbolStates.get(putSymbol);
+            OptionView callState = shared.option(instrumentMaster.getInstrumentId(callSymbol));
+            OptionView putState = shared.option(instrumentMaster.getInstrumentId(putSymbol));
 
             if (callState != null && putState != null) {
                 if (inSupportZone) {
                     boolean sentimentConfirmed = putState.changeInOI > callState.changeInOI;
                     boolean alphaConfirmed = callState.alpha > 1.2;
-                    boolean optionStructureConfirmed = isOptionAtSupport(callState.marketEvent);
+                    boolean optionStructureConfirmed = isOptionAtSupport(callState);
 
-                    if(sentimentConfirmed && alphaConfirmed && optionStructureConfirmed) {
+                    if(sentimentConfirmed && alphaConfirmed && optionStructureConfirmed
+                            && shared.consumedTrigger.compareAndSet(consumed, trigger)) {
                          logger.info("EXECUTE CALL BUY SIGNAL: All conditions met.");
                          publishSignal(callSymbol, "BUY", callState.currentLtp);
-                         priceActionTriggers.put(indexSymbol, false);
                     }
                 } else if (inResistanceZone) {
                     boolean sentimentConfirmed = callState.changeInOI > putState.changeInOI;
                     boolean alphaConfirmed = putState.alpha > 1.2;
-                    boolean optionStructureConfirmed = isOptionAtSupport(putState.marketEvent);
+                    boolean optionStructureConfirmed = isOptionAtSupport(putState);
 
-                    if(sentimentConfirmed && alphaConfirmed && optionStructureConfirmed) {
+                    if(sentimentConfirmed && alphaConfirmed && optionStructureConfirmed
+                            && shared.consumedTrigger.compareAndSet(consumed, trigger)) {
                          logger.info("EXECUTE PUT BUY SIGNAL: All conditions met.");
                          publishSignal(putSymbol, "BUY", putState.currentLtp);
-                         priceActionTriggers.put(indexSymbol, false);
                     }
                 }
             }
         }
     }
 
-    private boolean isOptionAtSupport(MarketEvent optionEvent) {
-        if(optionEvent == null) return false;
-        Deque<Candle> optionCandles = microCandles.get(optionEvent.getSymbol());
-        if (optionCandles == null || optionCandles.isEmpty()) {
+    private boolean isOptionAtSupport(OptionView optionState) {
+        double candleLow = optionState.microLow;
+        if (Double.isNaN(candleLow)) {
             return false;
         }
-        Candle currentCandle = optionCandles.getLast();
-        return optionEvent.getLtp() <= currentCandle.getLow() * 1.005;
+        return optionState.currentLtp <= candleLow * 1.005;
     }
 
-    private void updateMacroView(MarketEvent event) {
-        String symbol = event.getSymbol();
-        macroCandles.putIfAbsent(symbol, new ArrayDeque<>());
-        Deque<Candle> candles = macroCandles.get(symbol);
-
-        long candleTimestamp = event.getTs() - (event.getTs() % MACRO_CANDLE_DURATION_MS);
-
-        if (candles.isEmpty() || candles.getLast().getTimestamp() != candleTimestamp) {
-            Candle newCandle = new Candle(candleTimestamp, event.getLtp(), event.getLtp(), event.getLtp(), event.getLtp(), event.getLtq());
-            candles.addLast(newCandle);
-            if (candles.size() > MACRO_CANDLE_WINDOW_SIZE) {
-                candles.removeFirst();
-            }
-        } else {
-            candles.getLast().update(event.getLtp(), event.getLtq());
-        }
-
-        if (candles.size() == MACRO_CANDLE_WINDOW_SIZE) {
-            calculateValueZones(symbol, candles);
+    // The window is the running macro candle and the completed ones before it
+    private void updateMacroView(int id) {
+        BarSeries macro = bars.getSeries(MACRO, id);
+        if (macro.getCount() >= MACRO_CANDLE_WINDOW_SIZE - 1) {
+            calculateValueZones(macro);
         }
     }
 
-    private void updateMicroView(MarketEvent event) {
-        String symbol = event.getSymbol();
-        microCandles.putIfAbsent(symbol, new ArrayDeque<>());
-        Deque<Candle> candles = microCandles.get(symbol);
-        long candleTimestamp = event.getTs() - (event.getTs() % MICRO_CANDLE_DURATION_MS);
-
-        if (candles.isEmpty() || candles.getLast().getTimestamp() != candleTimestamp) {
-            candles.addLast(new Candle(candleTimestamp, event.getLtp(), event.getLtp(), event.getLtp(), event.getLtp(), event.getLtq()));
-        } else {
-            candles.getLast().update(event.getLtp(), event.getLtq());
-        }
-
-        if (candles.size() > 2) {
-            candles.removeFirst();
-        }
-
-        Zone zone = valueZones.get(symbol);
-        if (zone != null && ((event.getLtp() >= zone.getSupport() && event.getLtp() <= zone.getResistance()) || (event.getLtp() <= zone.getResistance() && event.getLtp() >= zone.getResistance() * 0.995)) && candles.size() == 2) {
-            detectPriceActionTriggers(symbol, candles.getFirst(), candles.getLast());
+    private void updateMicroView(MarketEvent event, int id) {
+        BarSeries micro = bars.getSeries(MICRO, id);
+        Zone zone = indexZone;
+        if (zone != null && ((event.getLtp() >= zone.getSupport() && event.getLtp() <= zone.getResistance()) || (event.getLtp() <= zone.getResistance() && event.getLtp() >= zone.getResistance() * 0.995)) && micro.getCount() > 0) {
+            detectPriceActionTriggers(micro);
         } else {
-            priceActionTriggers.put(symbol, false);
+            indexTriggerGeneration = 0;
         }
     }
 
-    private void detectPriceActionTriggers(String symbol, Candle previous, Candle current) {
-        if (isHammer(current) || isEngulfing(previous, current) || isRejectionWick(current)) {
-             priceActionTriggers.put(symbol, true);
+    // Previous candle against the running one
+    private void detectPriceActionTriggers(BarSeries micro) {
+        double open = micro.getRunningOpen(), high = micro.getRunningHigh(), low = micro.getRunningLow(), close = micro.getRunningClose();
+        if (isHammer(open, high, low, close)
+                || isEngulfing(micro.getOpen(0), micro.getHigh(0), micro.getLow(0), micro.getClose(0), open, close)
+                || isRejectionWick(open, high, low, close)) {
+             indexTriggerGeneration = ++triggerCounter;
         }
     }
 
@@ -225,32 +240,38 @@ public class AlphaPulseEngine {
             event.set(symbol, type, price, 0, 0, 0, 0, System.currentTimeMillis());
         } finally {
             signalRingBuffer.publish(sequence);
+            LatencyTracker.recordSince(signalLatency, currentReceiveNanos);
         }
     }
 
-    private boolean isHammer(Candle candle) {
-        double body = Math.abs(candle.getOpen() - candle.getClose());
-        double lowerWick = (candle.getOpen() > candle.getClose() ? candle.getClose() : candle.getOpen()) - candle.getLow();
-        double upperWick = candle.getHigh() - (candle.getOpen() > candle.getClose() ? candle.getOpen() : candle.getClose());
+    private boolean isHammer(double open, double high, double low, double close) {
+        double body = Math.abs(open - close);
+        double lowerWick = (open > close ? close : open) - low;
+        double upperWick = high - (open > close ? open : close);
         return lowerWick > body * 2 && upperWick < body;
     }
 
-    private boolean isEngulfing(Candle previous, Candle current) {
-        return (current.getClose() > previous.getOpen() && current.getOpen() < previous.getClose() && current.getClose() > previous.getHigh() && current.getOpen() < previous.getLow()) ||
-               (current.getOpen() > previous.getClose() && current.getClose() < previous.getOpen() && current.getOpen() > previous.getHigh() && current.getClose() < previous.getLow());
+    private boolean isEngulfing(double previousOpen, double previousHigh, double previousLow, double previousClose,
+            double open, double close) {
+        return (close > previousOpen && open < previousClose && close > previousHigh && open < previousLow) ||
+               (open > previousClose && close < previousOpen && open > previousHigh && close < previousLow);
     }
 
-    private boolean isRejectionWick(Candle candle) {
-        double body = Math.abs(candle.getOpen() - candle.getClose());
-        double upperWick = candle.getHigh() - Math.max(candle.getOpen(), candle.getClose());
-        double lowerWick = Math.min(candle.getOpen(), candle.getClose()) - candle.getLow();
+    private boolean isRejectionWick(double open, double high, double low, double close) {
+        double body = Math.abs(open - close);
+        double upperWick = high - Math.max(open, close);
+        double lowerWick = Math.min(open, close) - low;
         return upperWick > body * 2 || lowerWick > body * 2;
     }
 
-    private void calculateValueZones(String symbol, Deque<Candle> candles) {
-        double highestHigh = candles.stream().mapToDouble(Candle::getHigh).max().orElse(Double.MIN_VALUE);
-        double lowestLow = candles.stream().mapToDouble(Candle::getLow).min().orElse(Double.MAX_VALUE);
-        valueZones.put(symbol, new Zone(highestHigh, lowestLow));
+    private void calculateValueZones(BarSeries macro) {
+        double highestHigh = macro.getRunningHigh();
+        double lowestLow = macro.getRunningLow();
+        for (int i = 0; i < MACRO_CANDLE_WINDOW_SIZE - 1; i++) {
+            highestHigh = Math.max(highestHigh, macro.getHigh(i));
+            lowestLow = Math.min(lowestLow, macro.getLow(i));
+        }
+        indexZone = new Zone(highestHigh, lowestLow);
     }
 
     public static class Zone {
@@ -260,12 +281,75 @@ public class AlphaPulseEngine {
         public double getSupport() { return support; }
     }
 
+    /**
+     * Cross-partition view of the engine. The index view is an immutable object replaced on
+     * every index tick; option views have a single writer (the owning partition) and volatile
+     * fields, so readers see each value whole but not necessarily all from the same tick.
+     */
+    public static final class SharedState {
+        private volatile IndexView index;
+        private volatile OptionView[] options;
+        private final AtomicLong consumedTrigger = new AtomicLong();
+        private final AtomicInteger trapCount = new AtomicInteger();
+        private volatile long coolOffUntil;
+
+        public SharedState(int initialCapacity) {
+            this.options = new OptionView[initialCapacity];
+        }
+
+        OptionView option(int id) {
+            OptionView[] current = options;
+            return (id >= 0 && id < current.length) ? current[id] : null;
+        }
+
+        void publishOption(int id, SymbolState state, double microLow) {
+            OptionView view = option(id);
+            if (view == null) {
+                view = createOption(id);
+            }
+            view.currentLtp = state.currentLtp;
+            view.changeInOI = state.changeInOI;
+            view.alpha = state.alpha;
+            view.microLow = microLow;
+        }
+
+        // Serialised with growth so no partition's view is lost in a copy
+        private synchronized OptionView createOption(int id) {
+            OptionView[] current = options;
+            if (id >= current.length) {
+                current = Arrays.copyOf(current, Math.max(id + 1, current.length * 2));
+                options = current;
+            }
+            if (current[id] == null) {
+                current[id] = new OptionView();
+            }
+            return current[id];
+        }
+    }
+
+    private static final class IndexView {
+        final double previousLtp, currentLtp;
+        final Zone zone;
+        // Non-zero while a price-action trigger is live; each new trigger gets a new generation
+        final long triggerGeneration;
+
+        IndexView(double previousLtp, double currentLtp, Zone zone, long triggerGeneration) {
+            this.previousLtp = previousLtp;
+            this.currentLtp = currentLtp;
+            this.zone = zone;
+            this.triggerGeneration = triggerGeneration;
+        }
+    }
+
+    private static final class OptionView {
+        volatile double currentLtp, changeInOI, alpha;
+        volatile double microLow = Double.NaN;
+    }
+
     private static class SymbolState {
         double previousLtp, currentLtp, currentOI, previousOI, changeInOI, alpha;
-        long lastUpdateTime;
-        MarketEvent marketEvent;
+        long lastUpdateTime, lastAlphaCalcTime;
         void update(MarketEvent event) {
-            this.marketEvent = event;
             this.previousLtp = this.currentLtp;
             this.currentLtp = event.getLtp();
             this.lastUpdateTime = event.getTs();
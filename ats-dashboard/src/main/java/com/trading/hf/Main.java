@@ -1,5 +1,6 @@
 package com.trading.hf;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.List;
@@ -61,12 +62,22 @@ public class Main {
                 orderPersistenceWriter,
                 telemetryWriter,
                 heavyweightWriter,
-                List.of((event, seq, end) -> DashboardBridge.onMarketEvent(event)),
-                paperTradingEngine);
-
-        AlphaPulseEngine alphaPulseEngine = new AlphaPulseEngine(disruptorManager.getSignalRingBuffer(), indexInstrumentKey, instrumentMaster);
-
-        marketEventHandlers.add((event, sequence, endOfBatch) -> alphaPulseEngine.onMarketEvent(event));
+                List.of(new MarketEventConflator("dashboard", (event, seq, end) -> DashboardBridge.onMarketEvent(event),
+                        ConfigLoader.getLongProperty("conflation.dashboard.interval.ms", 100))),
+                paperTradingEngine,
+                instrumentMaster);
+
+        // One engine per partition (disruptor.partitions.alphaPulse), joined through the shared state
+        AlphaPulseEngine.SharedState alphaPulseState = new AlphaPulseEngine.SharedState(instrumentMaster.getInstrumentIdCapacity());
+        disruptorManager.addPartitionedMarketEventHandler("alphaPulse", partition -> {
+            AlphaPulseEngine alphaPulseEngine = new AlphaPulseEngine(disruptorManager.getSignalRingBuffer(),
+                    indexInstrumentKey, instrumentMaster, alphaPulseState);
+            return (event, sequence, endOfBatch) -> alphaPulseEngine.onMarketEvent(event);
+        });
+
+        if (disruptorManager.getBarEngine() != null) {
+            disruptorManager.addBarHandler((bar, sequence, endOfBatch) -> DashboardBridge.onBar(bar));
+        }
 
         disruptorManager.start();
 
@@ -137,7 +148,8 @@ public class Main {
                     accessToken,
                     disruptorManager.getMarketEventRingBuffer(),
                     disruptorManager.getRawFeedRingBuffer(),
-                    initialInstrumentKeys);
+                    initialInstrumentKeys,
+                    instrumentMaster);
 
             DynamicStrikeSubscriber strikeSubscriber = new DynamicStrikeSubscriber(newSubscriptions -> {
                 Set<String> currentSubscriptions = new HashSet<>(initialInstrumentKeys);
@@ -175,10 +187,13 @@ public class Main {
 
             switch (replaySource) {
                 case "sample_data":
-                    replayer = new MySampleDataReplayer(disruptorManager.getMarketEventRingBuffer(), dataDirectory);
+                    replayer = new MySampleDataReplayer(disruptorManager.getMarketEventRingBuffer(), dataDirectory, instrumentMaster);
                     break;
                 case "questdb":
-                    replayer = new QuestDBReplayer(disruptorManager.getMarketEventRingBuffer());
+                    replayer = new QuestDBReplayer(disruptorManager.getMarketEventRingBuffer(), instrumentMaster);
+                    break;
+                case "journal":
+                    replayer = new JournalReplayer(disruptorManager.getMarketEventRingBuffer(), null, instrumentMaster);
                     break;
                 default:
                     System.err.println("FATAL: Unknown replay.source configured: " + replaySource);
@@ -8,6 +8,8 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -28,6 +30,9 @@ public class DashboardBridge {
     private static volatile String lastActiveStockKey = "NSE_INDEX|Nifty 50";
     private static volatile double latestStockLtp = 0.0;
     private static volatile String focalOptionKey = null;
+    // Last completed chart bar (dashboard.chart.bars) per option, from the shared bar engine
+    private static final String chartBarSpec = ConfigLoader.getProperty("dashboard.chart.bars", "time:1m");
+    private static final Map<String, VolumeBar> latestChartBars = new ConcurrentHashMap<>();
     private static volatile double latestOptionLtp = 0.0;
 
     private static InstrumentMaster instrumentMaster = null;
@@ -116,6 +121,17 @@ public class DashboardBridge {
         }
     }
 
+    /** Completed bars from the bar ring; keeps the latest chart bar of each option. */
+    public static void onBar(BarEvent bar) {
+        if (!chartBarSpec.equals(bar.getSpec().getName()) || !isDerivative(bar.getSymbol())) {
+            return;
+        }
+        VolumeBar chartBar = new VolumeBar();
+        chartBar.set(bar.getSymbol(), bar.getStartTime(), bar.getOpen(), bar.getHigh(), bar.getLow(), bar.getClose(),
+                bar.getVolume(), bar.getVwap(), 0, 0, 0);
+        latestChartBars.put(bar.getSymbol(), chartBar);
+    }
+
     private static boolean isDerivative(String key) {
         if (key == null)
             return false;
@@ -229,10 +245,10 @@ public class DashboardBridge {
         // 3. Auction Profile (Always relative to stockFocus)
         String profileSymbol = lastActiveStockKey;
         logger.debug("Fetching auction profile for symbol: {}", profileSymbol);
-        AuctionProfileCalculator.MarketProfile profile = auctionProfileCalculator.getProfile(profileSymbol);
+        AuctionProfileCalculator.ValueArea profile = auctionProfileCalculator.getValueArea(profileSymbol);
         if (profile == null && !profileSymbol.equals("NSE_INDEX|Nifty 50")) {
             logger.debug("Profile null for {}, trying NSE_INDEX|Nifty 50", profileSymbol);
-            profile = auctionProfileCalculator.getProfile("NSE_INDEX|Nifty 50");
+            profile = auctionProfileCalculator.getValueArea("NSE_INDEX|Nifty 50");
         }
 
         if (profile != null) {
@@ -367,24 +383,40 @@ public class DashboardBridge {
             viewModel.optionSymbol = getFriendlyName(volumeBar.getSymbol());
             viewModel.optionLtp = volumeBar.getClose();
         } else {
-            // No option bar available - create a flat bar to avoid dashboard errors
-            // Use the tracked option LTP if available, otherwise use spot price
-            double price = (latestOptionLtp > 0) ? latestOptionLtp : latestSpotPrice;
-
-            // Create a flat OHLC (will display as a dash in the chart until real data
-            // arrives)
-            viewModel.ohlc.open = price;
-            viewModel.ohlc.high = price;
-            viewModel.ohlc.low = price;
-            viewModel.ohlc.close = price;
-
-            // Provide a flat volumeBar as well to keep charts stable
-            viewModel.volumeBar.orderBookImbalance = 0.0;
-            viewModel.volumeBar.startTime = System.currentTimeMillis();
-            viewModel.volumeBar.open = price;
-            viewModel.volumeBar.high = price;
-            viewModel.volumeBar.low = price;
-            viewModel.volumeBar.close = price;
+            VolumeBar chartBar = (focalOptionKey != null) ? latestChartBars.get(focalOptionKey) : null;
+            if (chartBar != null) {
+                // Last completed time bar of the focal option
+                viewModel.ohlc.open = chartBar.getOpen();
+                viewModel.ohlc.high = chartBar.getHigh();
+                viewModel.ohlc.low = chartBar.getLow();
+                viewModel.ohlc.close = chartBar.getClose();
+
+                viewModel.volumeBar.orderBookImbalance = 0.0;
+                viewModel.volumeBar.startTime = chartBar.getStartTime();
+                viewModel.volumeBar.open = chartBar.getOpen();
+                viewModel.volumeBar.high = chartBar.getHigh();
+                viewModel.volumeBar.low = chartBar.getLow();
+                viewModel.volumeBar.close = chartBar.getClose();
+            } else {
+                // No option bar available - create a flat bar to avoid dashboard errors
+                // Use the tracked option LTP if available, otherwise use spot price
+                double price = (latestOptionLtp > 0) ? latestOptionLtp : latestSpotPrice;
+
+                // Create a flat OHLC (will display as a dash in the chart until real data
+                // arrives)
+                viewModel.ohlc.open = price;
+                viewModel.ohlc.high = price;
+                viewModel.ohlc.low = price;
+                viewModel.ohlc.close = price;
+
+                // Provide a flat volumeBar as well to keep charts stable
+                viewModel.volumeBar.orderBookImbalance = 0.0;
+                viewModel.volumeBar.startTime = System.currentTimeMillis();
+                viewModel.volumeBar.open = price;
+                viewModel.volumeBar.high = price;
+                viewModel.volumeBar.low = price;
+                viewModel.volumeBar.close = price;
+            }
 
             // Update symbol display
             if (focalOptionKey != null && latestOptionLtp > 0) {